@@ -0,0 +1,116 @@
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Kanał synchroniczny CSP między jednym nadawcą a jednym odbiorcą: send (c!x) kończy się dopiero,
+// gdy odbiorca odbierze wartość (c?x). Przekazanie bez blokad - wartość trafia do jednej komórki
+// przez CAS, strona czekająca najpierw kręci się SPINS razy, potem usypia (LockSupport.park).
+// close() kończy kanał po stronie nadawcy; odbiór z zamkniętego pustego kanału zgłasza Closed,
+// a w Csp.alternative dozór z takim kanałem jest fałszywy (rozproszone kończenie pętli *[...]).
+class Channel<T> {
+    static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+    
+    private final AtomicReference<Object> slot = new AtomicReference<>();
+    private final String name;
+    private volatile Thread sender;
+    private volatile Thread receiver;
+    private volatile boolean closed;
+    
+    Channel(String name) {
+        this.name = name;
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+    
+    void send(T value) throws InterruptedException {
+        Objects.requireNonNull(value);
+        if (closed) {
+            throw new IllegalStateException("Kanał " + name + " jest zamknięty");
+        }
+        sender = Thread.currentThread();
+        if (!slot.compareAndSet(null, value)) {
+            throw new IllegalStateException("Kanał " + name + " ma drugiego nadawcę");
+        }
+        wake(receiver);
+        // Odbiorca zeruje komórkę po odebraniu
+        try {
+            for (int spin = 0; slot.get() == value; spin++) {
+                pause(spin);
+            }
+        } catch (InterruptedException e) {
+            // wycofujemy wartość, żeby nikt jej nie odebrał po nieudanym send
+            if (slot.compareAndSet(value, null)) {
+                throw e;
+            }
+            // odbiorca zdążył ją odebrać - przekazanie się udało, zostaje tylko przerwanie
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    T receive() throws InterruptedException {
+        receiver = Thread.currentThread();
+        for (int spin = 0; ; spin++) {
+            T value = poll();
+            if (value != null) {
+                return value;
+            }
+            if (closed && slot.get() == null) {
+                throw new Closed(this);
+            }
+            pause(spin);
+        }
+    }
+    
+    // Odbiór bez czekania: null, jeśli nadawca jeszcze nie czeka
+    @SuppressWarnings("unchecked")
+    T poll() {
+        Object value = slot.get();
+        if (value != null && slot.compareAndSet(value, null)) {
+            wake(sender);
+            return (T) value;
+        }
+        return null;
+    }
+    
+    void close() {
+        closed = true;
+        wake(receiver);
+    }
+    
+    boolean isClosed() {
+        return closed && slot.get() == null;
+    }
+    
+    // Odbiorca wielu kanałów (Csp.alternative) rejestruje się na każdym przed uśpieniem
+    void register(Thread thread) {
+        receiver = thread;
+    }
+    
+    private static void wake(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    static void pause(int spin) throws InterruptedException {
+        if (spin < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.park();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+    
+    static class Closed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        Closed(Channel<?> channel) {
+            super("Kanał " + channel + " jest zamknięty");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Konstrukcje CSP nad Channel:
+//   [P1 || P2 || ...]        parallel(...)      - każdy proces na własnym wątku systemowym (osobne rdzenie)
+//   [b1 -> S1 | b2; c?x -> S2] alternative(...) - wybór jednego prawdziwego dozoru
+//   *[ ... ]                 repetition(...)    - alternatywa powtarzana, dopóki jakiś dozór jest prawdziwy
+class Csp {
+    interface Process {
+        void run() throws Exception;
+    }
+    
+    interface Action {
+        void run() throws Exception;
+    }
+    
+    // Dozór: warunek logiczny i opcjonalnie odbiór z kanału
+    static final class Guard {
+        final BooleanSupplier condition;
+        final Channel<?> channel;
+        final Consumer<Object> input;
+        final Action action;
+        
+        private Guard(BooleanSupplier condition, Channel<?> channel, Consumer<Object> input, Action action) {
+            this.condition = condition;
+            this.channel = channel;
+            this.input = input;
+            this.action = action;
+        }
+    }
+    
+    // b -> S
+    static Guard when(BooleanSupplier condition, Action action) {
+        return new Guard(condition, null, null, action);
+    }
+    
+    // b; c?x -> S, gdzie x dostaje input
+    @SuppressWarnings("unchecked")
+    static <T> Guard when(BooleanSupplier condition, Channel<T> channel, Consumer<T> input, Action action) {
+        return new Guard(condition, channel, (Consumer<Object>) input, action);
+    }
+    
+    // c?x -> S
+    static <T> Guard on(Channel<T> channel, Consumer<T> input, Action action) {
+        return when(() -> true, channel, input, action);
+    }
+    
+    static void parallel(Process... processes) throws Exception {
+        List<Thread> threads = new ArrayList<>(processes.length);
+        Exception[] failure = new Exception[1];
+        for (int i = 0; i < processes.length; i++) {
+            Process process = processes[i];
+            threads.add(Thread.ofPlatform().name("csp-" + i).unstarted(() -> {
+                try {
+                    process.run();
+                } catch (Exception e) {
+                    synchronized (failure) {
+                        if (failure[0] == null) {
+                            failure[0] = e;
+                        }
+                    }
+                    // pozostałe procesy mogą czekać na ten - przerywamy je, żeby parallel się skończył
+                    threads.forEach(Thread::interrupt);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+    
+    // Wykonuje jeden dozór; false, gdy wszystkie są fałszywe (w CSP alternatywa wtedy zawodzi)
+    static boolean select(Guard... guards) throws Exception {
+        List<Guard> inputs = new ArrayList<>();
+        List<Guard> ready = new ArrayList<>();
+        for (Guard guard : guards) {
+            if (!guard.condition.getAsBoolean()) {
+                continue;
+            }
+            if (guard.channel == null) {
+                ready.add(guard);
+            } else if (!guard.channel.isClosed()) {
+                inputs.add(guard);
+            }
+        }
+        if (!ready.isEmpty()) {
+            // wybór niedeterministyczny jak w CSP
+            ready.get(ThreadLocalRandom.current().nextInt(ready.size())).action.run();
+            return true;
+        }
+        Thread self = Thread.currentThread();
+        for (Guard guard : inputs) {
+            guard.channel.register(self);
+        }
+        for (int spin = 0; !inputs.isEmpty(); spin++) {
+            int start = ThreadLocalRandom.current().nextInt(inputs.size());
+            for (int k = 0; k < inputs.size(); k++) {
+                Guard guard = inputs.get((start + k) % inputs.size());
+                Object value = guard.channel.poll();
+                if (value != null) {
+                    guard.input.accept(value);
+                    guard.action.run();
+                    return true;
+                }
+            }
+            inputs.removeIf(guard -> guard.channel.isClosed());
+            if (!inputs.isEmpty()) {
+                Channel.pause(spin);
+            }
+        }
+        return false;
+    }
+    
+    static void alternative(Guard... guards) throws Exception {
+        if (!select(guards)) {
+            throw new IllegalStateException("Alternatywa: wszystkie dozory fałszywe");
+        }
+    }
+    
+    static void repetition(Guard... guards) throws Exception {
+        while (select(guards)) {
+            // kolejny obrót pętli *[...]
+        }
+    }
+}
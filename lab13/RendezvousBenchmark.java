@@ -0,0 +1,104 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Exchanger;
+import java.util.concurrent.SynchronousQueue;
+
+// Opóźnienie spotkania (rendezvous): dwa procesy odbijają wartość w tę i z powrotem,
+// czas jednego przekazania to połowa pełnego obiegu. Channel porównujemy z SynchronousQueue
+// i Exchanger z java.util.concurrent.
+//
+// Przykład: java RendezvousBenchmark -rounds 200000 -warmup 50000
+class RendezvousBenchmark {
+    interface Link {
+        void send(Integer value) throws InterruptedException;
+        
+        Integer receive() throws InterruptedException;
+    }
+    
+    static Link channel() {
+        Channel<Integer> channel = new Channel<>("ping");
+        return new Link() {
+            public void send(Integer value) throws InterruptedException {
+                channel.send(value);
+            }
+            
+            public Integer receive() throws InterruptedException {
+                return channel.receive();
+            }
+        };
+    }
+    
+    static Link synchronousQueue() {
+        SynchronousQueue<Integer> queue = new SynchronousQueue<>();
+        return new Link() {
+            public void send(Integer value) throws InterruptedException {
+                queue.put(value);
+            }
+            
+            public Integer receive() throws InterruptedException {
+                return queue.take();
+            }
+        };
+    }
+    
+    static Link exchanger() {
+        Exchanger<Integer> exchanger = new Exchanger<>();
+        return new Link() {
+            public void send(Integer value) throws InterruptedException {
+                exchanger.exchange(value);
+            }
+            
+            public Integer receive() throws InterruptedException {
+                return exchanger.exchange(0);
+            }
+        };
+    }
+    
+    // Zwraca czasy pojedynczych przekazań w nanosekundach
+    static long[] measure(Link ping, Link pong, int warmup, int rounds) throws Exception {
+        long[] samples = new long[rounds];
+        Integer token = 1;
+        Csp.parallel(
+                () -> {
+                    for (int r = 0; r < warmup + rounds; r++) {
+                        long start = System.nanoTime();
+                        ping.send(token);
+                        pong.receive();
+                        if (r >= warmup) {
+                            samples[r - warmup] = (System.nanoTime() - start) / 2;
+                        }
+                    }
+                },
+                () -> {
+                    for (int r = 0; r < warmup + rounds; r++) {
+                        pong.send(ping.receive());
+                    }
+                });
+        Arrays.sort(samples);
+        return samples;
+    }
+    
+    static void report(String name, long[] sorted) {
+        System.out.println(String.format(Locale.ROOT, "%-18s %10d %10d %10d %10d", name,
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)],
+                sorted[(int) (sorted.length * 0.999)], sorted[sorted.length - 1]));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int rounds = 200_000;
+        int warmup = 50_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-rounds": rounds = Integer.parseInt(args[i + 1]); break;
+                case "-warmup": warmup = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        System.out.println("Kręcenie przed uśpieniem w Channel: " + Channel.SPINS);
+        System.out.println(String.format(Locale.ROOT, "%-18s %10s %10s %10s %10s",
+                "kanał", "p50[ns]", "p99[ns]", "p999[ns]", "maks[ns]"));
+        report("Channel", measure(channel(), channel(), warmup, rounds));
+        report("SynchronousQueue", measure(synchronousQueue(), synchronousQueue(), warmup, rounds));
+        report("Exchanger", measure(exchanger(), exchanger(), warmup, rounds));
+    }
+}
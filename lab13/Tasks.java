@@ -0,0 +1,159 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+// Programy z tasks.csp przetłumaczone ręcznie na Csp i Channel, numeracja jak w pliku.
+// Zmienne procesu to jednoelementowe tablice, bo dozory i akcje są lambdami.
+class Tasks {
+    // 1) skip
+    static void task1() {
+    }
+    
+    // 2) *[true -> skip] - nigdy się nie kończy, dlatego main go nie uruchamia
+    static void task2() throws Exception {
+        Csp.repetition(Csp.when(() -> true, () -> { }));
+    }
+    
+    // 3) średnia ze 100 liczb
+    static double task3(double[] tab) throws Exception {
+        int[] i = {1};
+        double[] sum = {0};
+        Csp.repetition(Csp.when(() -> i[0] <= 100, () -> {
+            sum[0] += tab[i[0] - 1];
+            i[0]++;
+        }));
+        return sum[0] / 100;
+    }
+    
+    // 4) czy key występuje w tab; każde tab(i) jest potem ustawiane na key + 1, co wyłącza dozór i
+    //    (w tasks.csp jest key(i)+1, czytamy to jako key+1)
+    static boolean task4(double[] tab, double key) throws Exception {
+        boolean[] present = {false};
+        Csp.Guard[] guards = new Csp.Guard[tab.length];
+        for (int k = 0; k < tab.length; k++) {
+            int i = k;
+            guards[k] = Csp.when(() -> tab[i] != key + 1, () -> {
+                Csp.alternative(
+                        Csp.when(() -> tab[i] == key, () -> present[0] = true),
+                        Csp.when(() -> tab[i] != key, () -> { }));
+                tab[i] = key + 1;
+            });
+        }
+        Csp.repetition(guards);
+        return present[0];
+    }
+    
+    // 5) odwrócenie tablicy
+    static void task5(int[] tab) throws Exception {
+        int[] i = {1};
+        int[] j = {tab.length};
+        Csp.repetition(Csp.when(() -> i[0] < j[0], () -> {
+            int tmp = tab[i[0] - 1];
+            tab[i[0] - 1] = tab[j[0] - 1];
+            tab[j[0] - 1] = tmp;
+            i[0]++;
+            j[0]--;
+        }));
+    }
+    
+    // 6) *[(i:1...99) tab(i+1) > tab(i) -> zamiana] - sortowanie malejąco, kolejność zamian wybiera runtime
+    static void task6(int[] tab) throws Exception {
+        Csp.Guard[] guards = new Csp.Guard[tab.length - 1];
+        for (int k = 0; k < guards.length; k++) {
+            int i = k;
+            guards[k] = Csp.when(() -> tab[i + 1] > tab[i], () -> {
+                int tmp = tab[i];
+                tab[i] = tab[i + 1];
+                tab[i + 1] = tmp;
+            });
+        }
+        Csp.repetition(guards);
+    }
+    
+    // 7) pierwiastki równania kwadratowego: Procx1 || Procx2 liczą równolegle, a trzeci proces
+    //    odbiera wyniki z kanałów - w CSP procesy nie współdzielą zmiennych
+    static double[] task7(double a, double b, double c) throws Exception {
+        double delta = b * b - 4 * a * c;
+        if (delta < 0) {
+            return null; // stop
+        }
+        Channel<Double> x1 = new Channel<>("x1");
+        Channel<Double> x2 = new Channel<>("x2");
+        double[] roots = new double[2];
+        Csp.parallel(
+                () -> {
+                    x1.send((-b - Math.sqrt(delta)) / (2 * a));
+                    x1.close();
+                },
+                () -> {
+                    x2.send((-b + Math.sqrt(delta)) / (2 * a));
+                    x2.close();
+                },
+                () -> Csp.repetition(
+                        Csp.on(x1, v -> roots[0] = v, () -> { }),
+                        Csp.on(x2, v -> roots[1] = v, () -> { })));
+        return roots;
+    }
+    
+    // 8) jak w tasks.csp: i zaczyna od 1, a n mod 1 = 0, więc dla n >= 4 flag jest zawsze true;
+    //    n/2 to dzielenie całkowite, dla n = 5 pętla przechodzi tylko i = 1
+    static boolean task8(int n) throws Exception {
+        int[] i = {1};
+        boolean[] flag = {false};
+        Csp.repetition(Csp.when(() -> i[0] < n / 2, () -> Csp.alternative(
+                Csp.when(() -> n % i[0] == 0, () -> {
+                    flag[0] = true;
+                    i[0]++;
+                }),
+                Csp.when(() -> n % i[0] != 0, () -> i[0]++))));
+        return flag[0];
+    }
+    
+    // 9) silnia
+    static long task9(int n) throws Exception {
+        long[] sil = {1};
+        int[] i = {1};
+        Csp.repetition(Csp.when(() -> i[0] <= n, () -> {
+            sil[0] *= i[0];
+            i[0]++;
+        }));
+        return sil[0];
+    }
+    
+    // 10) n-ty wyraz ciągu Fibonacciego (w tasks.csp "c := c a + b" czytamy jako c := a + b)
+    static long task10(int n) throws Exception {
+        long[] a = {0};
+        long[] b = {1};
+        long[] c = {1};
+        int[] i = {3};
+        Csp.repetition(Csp.when(() -> i[0] <= n, () -> {
+            c[0] = a[0] + b[0];
+            a[0] = b[0];
+            b[0] = c[0];
+            i[0]++;
+        }));
+        return c[0];
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(13);
+        double[] tab = new double[100];
+        for (int i = 0; i < tab.length; i++) {
+            tab[i] = random.nextInt(1000) / 10.0;
+        }
+        int[] numbers = random.ints(100, 0, 1000).toArray();
+        
+        task1();
+        System.out.println(String.format(Locale.ROOT, "3) średnia: %.3f", task3(tab)));
+        System.out.println("4) czy jest " + tab[42] + ": " + task4(tab.clone(), tab[42]));
+        int[] reversed = {1, 2, 3, 4, 5, 6, 7};
+        task5(reversed);
+        System.out.println("5) odwrócona: " + Arrays.toString(reversed));
+        task6(numbers);
+        System.out.println("6) posortowana malejąco: " + Arrays.toString(Arrays.copyOf(numbers, 10)) + " ...");
+        System.out.println("7) pierwiastki x^2 - 3x + 2: " + Arrays.toString(task7(1, -3, 2)));
+        System.out.println("8) flag dla n = 5: " + task8(5));
+        System.out.println("9) 10! = " + task9(10));
+        System.out.println("10) F(50) = " + task10(50));
+    }
+}
@@ -0,0 +1,29 @@
+// Arbiter dopuszczający do stołu najwyżej n - 1 filozofów naraz; wspólny protokół
+// ArbiterSolution i StripedArbiterSolution, osobno mierzony w ArbiterBenchmark
+interface Arbiter {
+    void enter(int id) throws InterruptedException;
+    
+    void leave(int id);
+    
+    static int acquire(Arbiter arbiter, int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        arbiter.enter(id);
+        EventLog.record(id, EventType.ARBITER_GRANT);
+        try {
+            Fork.acquireInOrder(id, leftFork, rightFork);
+        } catch (InterruptedException e) {
+            EventLog.record(id, EventType.ARBITER_RETURN);
+            arbiter.leave(id);
+            throw e;
+        }
+        return 0;
+    }
+    
+    static void release(Arbiter arbiter, int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+        EventLog.record(id, EventType.ARBITER_RETURN);
+        arbiter.leave(id);
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Koszt samego arbitra (enter + leave, bez widelców) przy rosnącej liczbie filozofów:
+// jeden Semaphore(n - 1) z ArbiterSolution kontra segmenty StripedArbiterSolution.
+// Wątek k wchodzi kolejno jako filozof k, k + t, ..., więc przy dużym N wątki trafiają w różne segmenty.
+//
+// Przykład: java ArbiterBenchmark -n 5,64,1024,16384,100000 -t 8 -time 2
+class ArbiterBenchmark {
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    
+    private static volatile int phase;
+    
+    static double measure(Arbiter arbiter, int n, int threads, long warmupMillis, long measureMillis)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        phase = WARMUP;
+        for (int k = 0; k < threads; k++) {
+            int first = k;
+            workers[k] = Thread.ofPlatform().daemon(true).start(() -> {
+                long count = 0;
+                try {
+                    int current;
+                    while ((current = phase) != STOP) {
+                        for (int id = first; id < n; id += threads) {
+                            arbiter.enter(id);
+                            arbiter.leave(id);
+                        }
+                        if (current == MEASURE) {
+                            count += (n - first + threads - 1) / threads;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                operations.add(count);
+            });
+        }
+        Thread.sleep(warmupMillis);
+        phase = MEASURE;
+        long start = System.nanoTime();
+        Thread.sleep(measureMillis);
+        phase = STOP;
+        long elapsed = System.nanoTime() - start;
+        for (Thread w : workers) {
+            w.join();
+        }
+        // średni czas jednej pary enter + leave widziany przez wątek
+        return (double) elapsed * threads / Math.max(1, operations.sum());
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = {5, 64, 1024, 16384, 100000};
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        long warmupMillis = 500;
+        long measureMillis = 2000;
+        
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-n": sizes = Benchmark.parseList(args[i + 1]); break;
+                case "-t": threadCount = Integer.parseInt(args[i + 1]); break;
+                case "-warmup": warmupMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                case "-time": measureMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        
+        System.out.println(String.format(Locale.ROOT, "%8s %6s %16s %16s", "N", "wątki", "arbiter[ns]", "paskowy[ns]"));
+        for (int n : sizes) {
+            // przy t >= n wątki czekałyby na siebie na pozwoleniach, mierzymy wtedy n - 1 wątków
+            int threads = Math.max(1, Math.min(threadCount, n - 1));
+            double single = measure((Arbiter) Main.strategy(5, n), n, threads, warmupMillis, measureMillis);
+            double striped = measure((Arbiter) Main.strategy(10, n), n, threads, warmupMillis, measureMillis);
+            System.out.println(String.format(Locale.ROOT, "%8d %6d %16.1f %16.1f", n, threads, single, striped));
+        }
+    }
+}
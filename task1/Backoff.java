@@ -0,0 +1,66 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Przerwa między kolejnymi próbami zdobycia widelców w rozwiązaniach z tryAcquire
+interface Backoff {
+    // attempt - numer nieudanej próby w bieżącym posiłku, liczony od 1
+    void pause(int attempt) throws InterruptedException;
+    
+    // Dotychczasowe zachowanie: stałe Thread.sleep
+    static Backoff sleep(long millis) {
+        return attempt -> Thread.sleep(millis);
+    }
+    
+    // Aktywne czekanie; co 16 prób oddaje procesor, gdy wątków jest więcej niż rdzeni
+    static Backoff spin() {
+        return attempt -> {
+            if ((attempt & 15) == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+            checkInterrupt();
+        };
+    }
+    
+    // Losowa przerwa z przedziału [0, min(maxNanos, minNanos * 2^attempt)]
+    static Backoff exponential(long minNanos, long maxNanos) {
+        return attempt -> {
+            long bound = maxNanos;
+            if (attempt < 63 && minNanos <= (maxNanos >>> attempt)) {
+                bound = minNanos << attempt;
+            }
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound + 1));
+            checkInterrupt();
+        };
+    }
+    
+    // Najpierw spins prób aktywnego czekania, potem uśpienie z terminem parkNanos
+    static Backoff spinThenPark(int spins, long parkNanos) {
+        return attempt -> {
+            if (attempt <= spins) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+            }
+            checkInterrupt();
+        };
+    }
+    
+    // sleep | spin | exp | park
+    static Backoff parse(String name) {
+        switch (name) {
+            case "sleep": return sleep(10);
+            case "spin": return spin();
+            case "exp": return exponential(1_000, 1_000_000);
+            case "park": return spinThenPark(32, 50_000);
+            default: throw new IllegalArgumentException("Nieznana strategia oczekiwania: " + name);
+        }
+    }
+    
+    private static void checkInterrupt() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
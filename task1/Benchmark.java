@@ -0,0 +1,333 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Benchmark strategii podnoszenia widelców (ForkAcquisitionStrategy) rozwiązań z Main.SOLUTIONS,
+// domyślnie wszystkich; strategie tworzy Main.strategy, jak w samej uczcie.
+// Repozytorium nie ma systemu budowania, więc zamiast JMH jest własna pętla:
+// rozgrzewka, pomiar w oknie czasowym, histogram opóźnień zdobycia widelców.
+//
+// Przykład: java Benchmark -s 3,4,5 -n 5,64 -t 4 -think 0,100 -eat 0,50 -warmup 1 -time 3
+//           java Benchmark -s 3,11 -think 0,10,100,1000 -eat 0,10,100 - lepkie widelce kontra asymetryczne
+//           java Benchmark -s 3,12,13 -n 5,1000,100000 -mode virtual - komunikaty kontra blokady
+//           java Benchmark -n 8 -think spin:20000 -eat 50,spin:20000,touch:4096,alloc:256 - jedzenie na procesorze
+//   -s      numery rozwiązań (jak w Main.SOLUTIONS)
+//   -n      liczba filozofów przy stole
+//   -t      liczba wątków (0 = wątek na filozofa); wątek k obsługuje filozofów k, k+t, ...
+//   -think  czas myślenia w mikrosekundach (0 = bez przerwy) albo obciążenie z Workload.parse:
+//           spin:ITERACJE, touch:KB, alloc:KB, sleep:MIN-MAX (ms)
+//   -eat    czas jedzenia, jak -think
+//   -mode   platform i/lub virtual - rodzaj wątków obsługujących filozofów
+//   -backoff sleep,spin,exp,park - przerwa między próbami w rozwiązaniach z tryAcquire
+//            (pozostałe rozwiązania mierzymy raz)
+//
+// maks[ms] to najdłuższe oczekiwanie na widelce, seria - najdłuższa seria przegranych prób
+// (zwracana przez ForkAcquisitionStrategy.acquire) spośród wszystkich filozofów.
+//
+// Kolumna CPU to czas procesora procesu podzielony przez (czas pomiaru * liczba rdzeni),
+// dla wątków wirtualnych przybliża wykorzystanie wątków nośnych.
+class Benchmark {
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    
+    static class Run {
+        volatile int phase = WARMUP;
+    }
+    
+    // Histogram współdzielony przez kilka wątków; przy setkach tysięcy wątków wirtualnych
+    // osobny histogram na wątek zająłby zbyt dużo pamięci
+    static class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LatencyHistogram latency = new LatencyHistogram();
+        
+        void record(long nanos) {
+            lock.lock();
+            try {
+                latency.record(nanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    // Zadanie obsługujące filozofów first, first + stride, ... po jednym posiłku na kolejkę
+    static class Driver implements Runnable {
+        private final Run run;
+        private final ForkAcquisitionStrategy strategy;
+        private final Fork[] forks;
+        private final int first;
+        private final int stride;
+        private final int n;
+        private final Workload thinking;
+        private final Workload eating;
+        private final long[] meals;
+        private final Stripe stripe;
+        private long maxWaitNanos;
+        private long maxLostStreak;
+        
+        Driver(Run run, ForkAcquisitionStrategy strategy, Fork[] forks, int first, int stride, int n,
+               Workload thinking, Workload eating, Stripe stripe) {
+            this.run = run;
+            this.strategy = strategy;
+            this.forks = forks;
+            this.first = first;
+            this.stride = stride;
+            this.n = n;
+            this.thinking = thinking;
+            this.eating = eating;
+            this.meals = new long[(n - first + stride - 1) / stride];
+            this.stripe = stripe;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                int phase;
+                while ((phase = run.phase) != STOP) {
+                    for (int j = 0, id = first; id < n; j++, id += stride) {
+                        Fork leftFork = forks[id];
+                        Fork rightFork = forks[(id + 1) % n];
+                        thinking.run();
+                        long waitStart = System.nanoTime();
+                        int lost = strategy.acquire(id, leftFork, rightFork);
+                        long wait = System.nanoTime() - waitStart;
+                        try {
+                            eating.run();
+                        } finally {
+                            strategy.release(id, leftFork, rightFork);
+                        }
+                        if (phase == MEASURE) {
+                            stripe.record(wait);
+                            meals[j]++;
+                            maxWaitNanos = Math.max(maxWaitNanos, wait);
+                            maxLostStreak = Math.max(maxLostStreak, lost);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    static class Result {
+        String strategy;
+        String mode;
+        String backoff;
+        int n;
+        int threads;
+        String think;
+        String eat;
+        double mealsPerSecond;
+        long p50;
+        long p99;
+        long p999;
+        double jain;
+        double minMaxRatio;
+        double cpu;
+        long maxWaitNanos;
+        long maxLostStreak;
+        double retriesPerMeal = Double.NaN;
+        boolean stuck;
+    }
+    
+    static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+    
+    static Result measure(int choice, String mode, String backoff, int n, int threads, String think,
+                          String eat, long warmupMillis, long measureMillis) throws InterruptedException {
+        Run run = new Run();
+        ForkAcquisitionStrategy strategy = Main.strategy(choice, n, Backoff.parse(backoff));
+        Fork[] forks = Table.forks(n);
+        Thread.Builder builder = mode.equals("virtual") ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        Stripe[] stripes = new Stripe[Math.min(threads, 256)];
+        for (int s = 0; s < stripes.length; s++) {
+            stripes[s] = new Stripe();
+        }
+        Driver[] drivers = new Driver[threads];
+        Thread[] workers = new Thread[threads];
+        for (int k = 0; k < threads; k++) {
+            drivers[k] = new Driver(run, strategy, forks, k, threads, n, Workload.parse(think), Workload.parse(eat),
+                    stripes[k % stripes.length]);
+            workers[k] = builder.start(drivers[k]);
+        }
+        
+        Thread.sleep(warmupMillis);
+        if (strategy instanceof RetryingSolution) {
+            ((RetryingSolution) strategy).resetStats();
+        }
+        run.phase = MEASURE;
+        long start = System.nanoTime();
+        long cpuStart = processCpuNanos();
+        Thread.sleep(measureMillis);
+        run.phase = STOP;
+        long elapsed = System.nanoTime() - start;
+        long cpu = processCpuNanos() - cpuStart;
+        
+        // Wątki, które nie skończyły w tym czasie, uznajemy za zakleszczone (są demonami)
+        long deadline = System.currentTimeMillis() + 2000;
+        boolean stuck = false;
+        for (Thread w : workers) {
+            w.join(Math.max(1, deadline - System.currentTimeMillis()));
+            stuck |= w.isAlive();
+        }
+        
+        long[] meals = new long[n];
+        LatencyHistogram latency = new LatencyHistogram();
+        for (Driver d : drivers) {
+            for (int j = 0, id = d.first; id < n; j++, id += threads) {
+                meals[id] = d.meals[j];
+            }
+        }
+        for (Stripe s : stripes) {
+            latency.merge(s.latency);
+        }
+        
+        Result r = new Result();
+        r.strategy = Main.SOLUTIONS[choice - 1];
+        r.mode = mode;
+        r.backoff = backoff;
+        r.n = n;
+        r.threads = threads;
+        r.think = think;
+        r.eat = eat;
+        r.mealsPerSecond = total(meals) * 1e9 / elapsed;
+        r.p50 = latency.percentile(50);
+        r.p99 = latency.percentile(99);
+        r.p999 = latency.percentile(99.9);
+        r.jain = jainIndex(meals);
+        r.minMaxRatio = minMaxRatio(meals);
+        r.cpu = (double) cpu / (elapsed * Runtime.getRuntime().availableProcessors());
+        for (Driver d : drivers) {
+            r.maxWaitNanos = Math.max(r.maxWaitNanos, d.maxWaitNanos);
+            r.maxLostStreak = Math.max(r.maxLostStreak, d.maxLostStreak);
+        }
+        if (strategy instanceof RetryingSolution) {
+            r.retriesPerMeal = ((RetryingSolution) strategy).retriesPerMeal();
+        }
+        close(strategy);
+        r.stuck = stuck;
+        return r;
+    }
+    
+    // Rozwiązania z własnymi wątkami (serwery widelców) trzeba zatrzymać po pomiarze
+    static void close(ForkAcquisitionStrategy strategy) {
+        if (strategy instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) strategy).close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+    
+    // Czy rozwiązanie ponawia tryAcquire; sprawdzamy na stole z dwoma filozofami, bo to tanie
+    static boolean retrying(int choice) {
+        ForkAcquisitionStrategy strategy = Main.strategy(choice, 2);
+        close(strategy);
+        return strategy instanceof RetryingSolution;
+    }
+    
+    static long total(long[] values) {
+        long sum = 0;
+        for (long v : values) {
+            sum += v;
+        }
+        return sum;
+    }
+    
+    // Indeks Jaina: (suma x)^2 / (n * suma x^2); 1.0 = idealnie sprawiedliwie
+    static double jainIndex(long[] values) {
+        double sum = 0;
+        double squares = 0;
+        for (long v : values) {
+            sum += v;
+            squares += (double) v * v;
+        }
+        return squares == 0 ? 0 : sum * sum / (values.length * squares);
+    }
+    
+    static double minMaxRatio(long[] values) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return max == 0 ? 0 : (double) min / max;
+    }
+    
+    static int[] parseList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int[] choices = new int[Main.SOLUTIONS.length];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = i + 1;
+        }
+        int[] sizes = {5};
+        int[] threadCounts = {0};
+        String[] thinks = {"0"};
+        String[] eats = {"0"};
+        String[] modes = {"platform"};
+        String[] backoffs = {"sleep"};
+        long warmupMillis = 1000;
+        long measureMillis = 3000;
+        
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-s": choices = parseList(args[i + 1]); break;
+                case "-n": sizes = parseList(args[i + 1]); break;
+                case "-t": threadCounts = parseList(args[i + 1]); break;
+                case "-think": thinks = args[i + 1].split(","); break;
+                case "-eat": eats = args[i + 1].split(","); break;
+                case "-mode": modes = args[i + 1].split(","); break;
+                case "-backoff": backoffs = args[i + 1].split(","); break;
+                case "-warmup": warmupMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                case "-time": measureMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        
+        System.out.println(String.format(Locale.ROOT,
+                "%-30s %-8s %-6s %7s %7s %9s %9s %12s %10s %10s %10s %6s %7s %5s %9s %9s %6s",
+                "rozwiązanie", "tryb", "przerwa", "N", "wątki", "think", "eat", "posiłki/s", "p50[us]", "p99[us]",
+                "p999[us]", "Jain", "min/max", "CPU", "ponowień", "maks[ms]", "seria"));
+        for (int n : sizes) {
+            for (int t : threadCounts) {
+                int threads = t <= 0 ? n : Math.min(t, n);
+                for (String think : thinks) {
+                    for (String eat : eats) {
+                        for (int choice : choices) {
+                            boolean retrying = retrying(choice);
+                            for (String mode : modes) {
+                                for (int k = 0; k < (retrying ? backoffs.length : 1); k++) {
+                                    String backoff = retrying ? backoffs[k] : "-";
+                                    Result r = measure(choice, mode, retrying ? backoff : "sleep", n, threads,
+                                            think, eat, warmupMillis, measureMillis);
+                                    r.backoff = backoff;
+                                    System.out.println(String.format(Locale.ROOT,
+                                            "%-30s %-8s %-6s %7d %7d %9s %9s %12.0f %10.1f %10.1f %10.1f %6.3f %7.3f %4.0f%% %9s %9.2f %6d%s",
+                                            r.strategy, r.mode, r.backoff, r.n, r.threads, r.think, r.eat,
+                                            r.mealsPerSecond, r.p50 / 1e3, r.p99 / 1e3, r.p999 / 1e3, r.jain,
+                                            r.minMaxRatio, r.cpu * 100,
+                                            Double.isNaN(r.retriesPerMeal) ? "-" : String.format(Locale.ROOT, "%.2f", r.retriesPerMeal),
+                                            r.maxWaitNanos / 1e6, r.maxLostStreak,
+                                            r.stuck ? "  ZAKLESZCZENIE" : ""));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Silnik "pijących filozofów": każde zadanie z ConflictGraph w pętli myśli, podnosi swój zbiór
+// zasobów (widelców) w kolejności z ConflictGraph.plan i je. Obie kolejności są wolne od zakleszczeń,
+// bo każde zadanie podnosi zasoby rosnąco względem jednego porządku (numer albo kolor zasobu).
+//
+// Przykład: java ConflictEngine -tasks 64 -resources 64,256 -k 2,4,8 -think 0 -eat 50 -time 3
+//   -file      graf z pliku (wtedy -tasks, -resources i -k są pomijane)
+//   -ring      stół z Main o podanej liczbie filozofów, do porównania z Benchmark
+//   -tasks     liczba zadań w losowym grafie
+//   -resources liczba zasobów
+//   -k         rozmiar zbioru zasobów zadania
+//   -plan      ordered,colored - kolejność podnoszenia
+//   -think, -eat w mikrosekundach, -warmup, -time w sekundach
+class ConflictEngine {
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    
+    private final Fork[] forks;
+    private final int[][] plan;
+    private volatile int phase = WARMUP;
+    
+    ConflictEngine(ConflictGraph graph, int[][] plan) {
+        this.forks = Table.forks(graph.resources);
+        this.plan = plan;
+    }
+    
+    // Podnosi zasoby zadania w kolejności planu; po przerwaniu odkłada te, które już trzyma
+    void acquire(int task) throws InterruptedException {
+        int[] order = plan[task];
+        int held = 0;
+        try {
+            for (; held < order.length; held++) {
+                forks[order[held]].acquire();
+            }
+        } finally {
+            if (held < order.length) {
+                release(order, held);
+            }
+        }
+    }
+    
+    void release(int task) {
+        release(plan[task], plan[task].length);
+    }
+    
+    private void release(int[] order, int held) {
+        for (int i = held - 1; i >= 0; i--) {
+            forks[order[i]].release();
+        }
+    }
+    
+    static class Result {
+        double mealsPerSecond;
+        long p99;
+        double jain;
+        boolean stuck;
+    }
+    
+    Result measure(long thinkNanos, long eatNanos, long warmupMillis, long measureMillis)
+            throws InterruptedException {
+        int n = plan.length;
+        long[] meals = new long[n];
+        LatencyHistogram[] latency = new LatencyHistogram[n];
+        Thread[] workers = new Thread[n];
+        Workload thinking = Workload.park(thinkNanos);
+        Workload eating = Workload.park(eatNanos);
+        for (int t = 0; t < n; t++) {
+            int task = t;
+            latency[t] = new LatencyHistogram();
+            workers[t] = Thread.ofPlatform().daemon(true).name("zadanie-" + t).start(() -> {
+                try {
+                    int current;
+                    while ((current = phase) != STOP) {
+                        thinking.run();
+                        long start = System.nanoTime();
+                        acquire(task);
+                        long wait = System.nanoTime() - start;
+                        try {
+                            eating.run();
+                        } finally {
+                            release(task);
+                        }
+                        if (current == MEASURE) {
+                            meals[task]++;
+                            latency[task].record(wait);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        
+        Thread.sleep(warmupMillis);
+        phase = MEASURE;
+        long start = System.nanoTime();
+        Thread.sleep(measureMillis);
+        phase = STOP;
+        long elapsed = System.nanoTime() - start;
+        
+        long deadline = System.currentTimeMillis() + 2000;
+        Result r = new Result();
+        for (Thread w : workers) {
+            w.join(Math.max(1, deadline - System.currentTimeMillis()));
+            r.stuck |= w.isAlive();
+        }
+        LatencyHistogram all = new LatencyHistogram();
+        for (LatencyHistogram h : latency) {
+            all.merge(h);
+        }
+        r.mealsPerSecond = Benchmark.total(meals) * 1e9 / elapsed;
+        r.p99 = all.percentile(99);
+        r.jain = Benchmark.jainIndex(meals);
+        return r;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        String file = null;
+        int ring = 0;
+        int[] taskCounts = {64};
+        int[] resourceCounts = {64, 256};
+        int[] setSizes = {2, 4, 8};
+        String[] plans = {"ordered", "colored"};
+        long thinkMicros = 0;
+        long eatMicros = 50;
+        long warmupMillis = 1000;
+        long measureMillis = 3000;
+        
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-file": file = args[i + 1]; break;
+                case "-ring": ring = Integer.parseInt(args[i + 1]); break;
+                case "-tasks": taskCounts = Benchmark.parseList(args[i + 1]); break;
+                case "-resources": resourceCounts = Benchmark.parseList(args[i + 1]); break;
+                case "-k": setSizes = Benchmark.parseList(args[i + 1]); break;
+                case "-plan": plans = args[i + 1].split(","); break;
+                case "-think": thinkMicros = Long.parseLong(args[i + 1]); break;
+                case "-eat": eatMicros = Long.parseLong(args[i + 1]); break;
+                case "-warmup": warmupMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                case "-time": measureMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        
+        System.out.println(String.format(Locale.ROOT, "%-9s %7s %7s %5s %8s %7s %12s %10s %6s",
+                "kolejność", "zadania", "zasoby", "k", "gęstość", "kolory", "posiłki/s", "p99[us]", "Jain"));
+        if (file != null || ring > 0) {
+            ConflictGraph graph = file != null ? ConflictGraph.load(Path.of(file)) : ConflictGraph.ring(ring);
+            for (String plan : plans) {
+                report(graph, plan, thinkMicros, eatMicros, warmupMillis, measureMillis);
+            }
+            return;
+        }
+        for (int tasks : taskCounts) {
+            for (int resources : resourceCounts) {
+                for (int k : setSizes) {
+                    if (k > resources) {
+                        continue;
+                    }
+                    ConflictGraph graph = ConflictGraph.random(tasks, resources, k, 42);
+                    for (String plan : plans) {
+                        report(graph, plan, thinkMicros, eatMicros, warmupMillis, measureMillis);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void report(ConflictGraph graph, String plan, long thinkMicros, long eatMicros,
+                               long warmupMillis, long measureMillis) throws InterruptedException {
+        boolean colored;
+        switch (plan) {
+            case "ordered": colored = false; break;
+            case "colored": colored = true; break;
+            default: throw new IllegalArgumentException("Nieznana kolejność: " + plan);
+        }
+        int colors = colored ? ConflictGraph.colors(graph.colorResources()) : graph.resources;
+        Result r = new ConflictEngine(graph, graph.plan(colored))
+                .measure(thinkMicros * 1000, eatMicros * 1000, warmupMillis, measureMillis);
+        System.out.println(String.format(Locale.ROOT, "%-9s %7d %7d %5.1f %8.3f %7d %12.0f %10.1f %6.3f%s",
+                plan, graph.tasks.length, graph.resources, graph.averageSetSize(), graph.density(), colors,
+                r.mealsPerSecond, r.p99 / 1e3, r.jain, r.stuck ? "  ZAKLESZCZENIE" : ""));
+    }
+}
@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Graf konfliktów "pijących filozofów": zadanie i potrzebuje zbioru zasobów tasks[i],
+// dwa zadania są w konflikcie, gdy dzielą zasób. Stół z Main to szczególny przypadek: zadanie i -> {i, i + 1}.
+//
+// Plik: jedna linia na zadanie, numery zasobów oddzielone spacjami, # zaczyna komentarz, np.
+//   0 1
+//   1 2 5
+class ConflictGraph {
+    final int resources;
+    final int[][] tasks;
+    
+    ConflictGraph(int resources, int[][] tasks) {
+        this.resources = resources;
+        this.tasks = tasks;
+    }
+    
+    static ConflictGraph load(Path file) throws IOException {
+        List<int[]> tasks = new ArrayList<>();
+        int resources = 0;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String content = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (content.isEmpty()) {
+                continue;
+            }
+            int[] set;
+            try {
+                set = Arrays.stream(content.split("\\s+")).mapToInt(Integer::parseInt).sorted().distinct().toArray();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": niepoprawny numer zasobu", e);
+            }
+            if (set[0] < 0) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": ujemny numer zasobu");
+            }
+            resources = Math.max(resources, set[set.length - 1] + 1);
+            tasks.add(set);
+        }
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException(file + ": brak zadań");
+        }
+        return new ConflictGraph(resources, tasks.toArray(new int[0][]));
+    }
+    
+    static ConflictGraph ring(int n) {
+        int[][] tasks = new int[n][];
+        for (int i = 0; i < n; i++) {
+            tasks[i] = new int[] {i, (i + 1) % n};
+        }
+        return new ConflictGraph(n, tasks);
+    }
+    
+    // Każde zadanie losuje setSize różnych zasobów spośród resources
+    static ConflictGraph random(int taskCount, int resources, int setSize, long seed) {
+        if (setSize > resources) {
+            throw new IllegalArgumentException("Zbiór zasobów większy niż liczba zasobów");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] pool = new int[resources];
+        for (int r = 0; r < resources; r++) {
+            pool[r] = r;
+        }
+        int[][] tasks = new int[taskCount][];
+        for (int t = 0; t < taskCount; t++) {
+            // częściowe tasowanie Fishera-Yatesa
+            for (int k = 0; k < setSize; k++) {
+                int j = k + random.nextInt(resources - k);
+                int tmp = pool[k];
+                pool[k] = pool[j];
+                pool[j] = tmp;
+            }
+            tasks[t] = Arrays.copyOf(pool, setSize);
+        }
+        return new ConflictGraph(resources, tasks);
+    }
+    
+    // Zadania korzystające z każdego zasobu
+    private int[][] users() {
+        int[] count = new int[resources];
+        for (int[] set : tasks) {
+            for (int r : set) {
+                count[r]++;
+            }
+        }
+        int[][] users = new int[resources][];
+        for (int r = 0; r < resources; r++) {
+            users[r] = new int[count[r]];
+            count[r] = 0;
+        }
+        for (int t = 0; t < tasks.length; t++) {
+            for (int r : tasks[t]) {
+                users[r][count[r]++] = t;
+            }
+        }
+        return users;
+    }
+    
+    // Liczba krawędzi grafu konfliktów (par zadań dzielących co najmniej jeden zasób)
+    long conflicts() {
+        int[][] users = users();
+        int[] seen = new int[tasks.length];
+        Arrays.fill(seen, -1);
+        long edges = 0;
+        for (int t = 0; t < tasks.length; t++) {
+            for (int r : tasks[t]) {
+                for (int other : users[r]) {
+                    if (other > t && seen[other] != t) {
+                        seen[other] = t;
+                        edges++;
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+    
+    // Gęstość grafu konfliktów: krawędzie / wszystkie możliwe pary zadań
+    double density() {
+        long pairs = (long) tasks.length * (tasks.length - 1) / 2;
+        return pairs == 0 ? 0 : (double) conflicts() / pairs;
+    }
+    
+    double averageSetSize() {
+        long sum = 0;
+        for (int[] set : tasks) {
+            sum += set.length;
+        }
+        return (double) sum / tasks.length;
+    }
+    
+    // Zachłanne kolorowanie zasobów (Welsh-Powell): zasoby jednego zadania dostają różne kolory.
+    // Zadanie bierze zasoby w kolejności kolorów, więc łańcuch czekających ma najwyżej tyle ogniw,
+    // ile jest kolorów - uogólnienie AsymmetricSolution, gdzie dwa kolory to parzyste i nieparzyste widelce.
+    int[] colorResources() {
+        int[][] users = users();
+        int[][] neighbors = new int[resources][];
+        int[] seen = new int[resources];
+        Arrays.fill(seen, -1);
+        int[] buffer = new int[resources];
+        for (int r = 0; r < resources; r++) {
+            int size = 0;
+            for (int t : users[r]) {
+                for (int other : tasks[t]) {
+                    if (other != r && seen[other] != r) {
+                        seen[other] = r;
+                        buffer[size++] = other;
+                    }
+                }
+            }
+            neighbors[r] = Arrays.copyOf(buffer, size);
+        }
+        
+        Integer[] byDegree = new Integer[resources];
+        for (int r = 0; r < resources; r++) {
+            byDegree[r] = r;
+        }
+        Arrays.sort(byDegree, (a, b) -> neighbors[b].length != neighbors[a].length
+                ? neighbors[b].length - neighbors[a].length
+                : a - b);
+        
+        int[] color = new int[resources];
+        Arrays.fill(color, -1);
+        int[] used = new int[resources + 1];
+        Arrays.fill(used, -1);
+        for (int r : byDegree) {
+            for (int other : neighbors[r]) {
+                if (color[other] >= 0) {
+                    used[color[other]] = r;
+                }
+            }
+            int c = 0;
+            while (used[c] == r) {
+                c++;
+            }
+            color[r] = c;
+        }
+        return color;
+    }
+    
+    // Kolejność podnoszenia zasobów przez każde zadanie:
+    //   ordered - rosnące numery zasobów (globalny porządek)
+    //   colored - rosnące kolory z colorResources(), remisów nie ma, bo kolory w zadaniu są różne
+    int[][] plan(boolean colored) {
+        int[] key = colored ? colorResources() : null;
+        int[][] plan = new int[tasks.length][];
+        for (int t = 0; t < tasks.length; t++) {
+            if (key == null) {
+                plan[t] = tasks[t].clone();
+                Arrays.sort(plan[t]);
+            } else {
+                plan[t] = Arrays.stream(tasks[t]).boxed()
+                        .sorted((a, b) -> key[a] - key[b])
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+        return plan;
+    }
+    
+    static int colors(int[] color) {
+        int max = -1;
+        for (int c : color) {
+            max = Math.max(max, c);
+        }
+        return max + 1;
+    }
+}
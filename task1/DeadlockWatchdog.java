@@ -0,0 +1,145 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Strażnik zakleszczeń: co interval pyta ThreadMXBean o cykle w grafie oczekiwania wątków
+// (widelce to ReentrantLock, więc JVM widzi je jako ownable synchronizers), wybiera ofiarę
+// i przerywa jej czekanie - ofiara odkłada trzymane widelce i próbuje od nowa.
+// Działa tylko dla wątków systemowych, JVM nie śledzi blokad wątków wirtualnych.
+class DeadlockWatchdog {
+    private static volatile DeadlockWatchdog active;
+    
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final long intervalNanos;
+    private final Thread thread;
+    private final ConcurrentHashMap<Long, Waiter> waiters = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    
+    // Zapisuje tylko wątek strażnika, odczyt w report()
+    private final AtomicLong recoveries = new AtomicLong();
+    private final AtomicLong detectNanos = new AtomicLong();
+    private final AtomicLong maxDetectNanos = new AtomicLong();
+    
+    private DeadlockWatchdog(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.thread = new Thread(this::watch, "deadlock-watchdog");
+        this.thread.setDaemon(true);
+    }
+    
+    static synchronized DeadlockWatchdog start(long intervalMillis) {
+        if (active != null) {
+            throw new IllegalStateException("Strażnik zakleszczeń już działa");
+        }
+        DeadlockWatchdog watchdog = new DeadlockWatchdog(intervalMillis);
+        if (!watchdog.threads.isSynchronizerUsageSupported()) {
+            throw new UnsupportedOperationException("JVM nie śledzi blokad java.util.concurrent");
+        }
+        watchdog.thread.start();
+        active = watchdog;
+        return watchdog;
+    }
+    
+    synchronized void stop() throws InterruptedException {
+        if (active == this) {
+            active = null;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+    
+    // Rejestruje bieżący wątek jako filozofa id; null, gdy strażnik nie działa
+    static Waiter register(int id) {
+        DeadlockWatchdog watchdog = active;
+        if (watchdog == null) {
+            return null;
+        }
+        Waiter waiter = new Waiter(id, Thread.currentThread());
+        watchdog.waiters.put(waiter.thread.threadId(), waiter);
+        return waiter;
+    }
+    
+    static void unregister(Waiter waiter) {
+        DeadlockWatchdog watchdog = active;
+        if (watchdog != null && waiter != null) {
+            watchdog.waiters.remove(waiter.thread.threadId());
+        }
+    }
+    
+    private void watch() {
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            long[] deadlocked = threads.findDeadlockedThreads();
+            if (deadlocked != null) {
+                recover(deadlocked);
+            }
+        }
+    }
+    
+    private void recover(long[] deadlocked) {
+        Waiter victim = null;
+        long closedAt = 0;
+        for (long threadId : deadlocked) {
+            Waiter waiter = waiters.get(threadId);
+            if (waiter == null) {
+                return; // w cyklu jest wątek spoza stołu, nie ruszamy go
+            }
+            if (waiter.preempted) {
+                return; // poprzednia ofiara jeszcze nie odłożyła widelców
+            }
+            long since = waiter.waitingSince;
+            // Ofiarą jest ten, kto czeka najkrócej - on zamknął cykl i traci najmniej
+            if (victim == null || since > closedAt) {
+                victim = waiter;
+                closedAt = since;
+            }
+        }
+        if (victim == null) {
+            return;
+        }
+        long detect = System.nanoTime() - closedAt;
+        recoveries.incrementAndGet();
+        detectNanos.addAndGet(detect);
+        maxDetectNanos.accumulateAndGet(detect, Math::max);
+        victim.preempted = true;
+        victim.thread.interrupt();
+    }
+    
+    long getRecoveries() {
+        return recoveries.get();
+    }
+    
+    String report() {
+        long count = recoveries.get();
+        if (count == 0) {
+            return "Strażnik zakleszczeń: brak zakleszczeń";
+        }
+        return String.format("Strażnik zakleszczeń: %d wywłaszczeń, czas wykrycia śr. %.1f ms, maks. %.1f ms",
+                count, detectNanos.get() / 1e6 / count, maxDetectNanos.get() / 1e6);
+    }
+    
+    // Stan filozofa widziany przez strażnika
+    static final class Waiter {
+        final int id;
+        final Thread thread;
+        volatile long waitingSince;
+        volatile boolean preempted;
+        
+        Waiter(int id, Thread thread) {
+            this.id = id;
+            this.thread = thread;
+        }
+        
+        // Czy przerwanie pochodziło od strażnika (kasuje znacznik)
+        boolean consumePreempted() {
+            if (preempted) {
+                preempted = false;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Stół rozłożony na kilka JVM na jednym komputerze: każdy proces (TokenNode) obsługuje kolejny
+// fragment pierścienia filozofów, a widelce na granicach fragmentów wędrują jako żetony przez
+// gniazda TCP na localhost. Bez -node uruchamia procesy potomne i zbiera ich wyniki.
+//
+// Przykłady:
+//   java DistributedTable -processes 4 -n 20 -meals 2000 -s 3
+//   java DistributedTable -processes 4 -n 20 -meals 2000 -s 5 -think 100 -eat 100
+//   java DistributedTable -processes 1 -n 20 -meals 2000 -s 3 - wszystko w jednym procesie
+//   -s        3 (asymetryczne) albo 5 (z arbitrem w procesie 0), numeracja jak w Main.SOLUTIONS
+//   -think    czas myślenia w mikrosekundach, -eat - czas jedzenia
+//   -port     port procesu 0, proces k słucha na port + k
+//
+// komunikaty/posiłek liczą REQUEST, TOKEN oraz ENTER, GRANT i LEAVE arbitra - sieciowe i wewnątrz procesu;
+// zapisy to wywołania write na gniazdach (komunikaty z jednego obrotu pętli idą razem).
+class DistributedTable {
+    static final String RESULT = "#wynik ";
+    
+    public static void main(String[] args) throws Exception {
+        int processes = 4;
+        int n = 20;
+        int meals = 1000;
+        int choice = 3;
+        long think = 100;
+        long eat = 100;
+        int port = 47000;
+        int node = -1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-processes": processes = Integer.parseInt(args[i + 1]); break;
+                case "-n": n = Integer.parseInt(args[i + 1]); break;
+                case "-meals": meals = Integer.parseInt(args[i + 1]); break;
+                case "-s": choice = Integer.parseInt(args[i + 1]); break;
+                case "-think": think = Long.parseLong(args[i + 1]); break;
+                case "-eat": eat = Long.parseLong(args[i + 1]); break;
+                case "-port": port = Integer.parseInt(args[i + 1]); break;
+                case "-node": node = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        
+        if (node >= 0) {
+            TokenNode tokenNode = new TokenNode(node, processes, n, choice, meals, think * 1000, eat * 1000);
+            tokenNode.connect(port);
+            tokenNode.run();
+            System.out.println(tokenNode.result());
+            return;
+        }
+        
+        // sprawdza argumenty, zanim wystartują procesy
+        new TokenNode(0, processes, n, choice, meals, think * 1000, eat * 1000);
+        System.out.println(String.format(Locale.ROOT, "%s: %d filozofów w %d procesach, %d posiłków każdy",
+                Main.SOLUTIONS[choice - 1], n, processes, meals));
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        long start = System.nanoTime();
+        List<Process> children = new ArrayList<>();
+        for (int k = 0; k < processes; k++) {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    "DistributedTable", "-node", String.valueOf(k)));
+            command.addAll(List.of(args));
+            children.add(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        
+        long totalMeals = 0;
+        long network = 0;
+        long local = 0;
+        long writes = 0;
+        long bytes = 0;
+        long waitP99 = 0;
+        long maxWait = 0;
+        long mealP99 = 0;
+        System.out.println(String.format(Locale.ROOT, "%-6s %10s %10s %10s %10s %12s %12s %12s %12s",
+                "proces", "posiłki", "sieciowe", "lokalne", "zapisy", "czek.p50[ms]", "czek.p99[ms]",
+                "pos.p50[ms]", "pos.p99[ms]"));
+        for (Process child : children) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith(RESULT)) {
+                        System.out.println(line);
+                        continue;
+                    }
+                    String[] parts = line.substring(RESULT.length() + 1, line.length() - 1).split(", ");
+                    long[] v = new long[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        v[i] = Long.parseLong(parts[i]);
+                    }
+                    System.out.println(String.format(Locale.ROOT, "%-6d %10d %10d %10d %10d %12.3f %12.3f %12.3f %12.3f",
+                            v[0], v[1], v[2], v[3], v[4], v[6] / 1e6, v[7] / 1e6, v[9] / 1e6, v[10] / 1e6));
+                    totalMeals += v[1];
+                    network += v[2];
+                    local += v[3];
+                    writes += v[4];
+                    bytes += v[5];
+                    waitP99 = Math.max(waitP99, v[7]);
+                    maxWait = Math.max(maxWait, v[8]);
+                    mealP99 = Math.max(mealP99, v[10]);
+                }
+            }
+            if (child.waitFor() != 0) {
+                throw new IllegalStateException("Proces zakończył się kodem " + child.exitValue());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "Razem %d posiłków w %.2f s (%.0f posiłków/s, z uruchomieniem JVM)", totalMeals, seconds, totalMeals / seconds));
+        System.out.println(String.format(Locale.ROOT,
+                "Komunikaty/posiłek: %.2f (sieciowe %.2f), komunikatów na zapis: %.2f, bajtów sieciowych %d",
+                (double) (network + local) / totalMeals, (double) network / totalMeals,
+                writes == 0 ? 0.0 : (double) network / writes, bytes));
+        System.out.println(String.format(Locale.ROOT,
+                "Najgorszy proces: czekanie p99 %.3f ms, maks. %.3f ms, posiłek od głodu do końca p99 %.3f ms",
+                waitP99 / 1e6, maxWait / 1e6, mealP99 / 1e6));
+    }
+}
@@ -0,0 +1,345 @@
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Rejestrator zdarzeń filozofów zamiast System.out.println w pętli.
+// Każdy filozof pisze do własnego, wcześniej zaalokowanego bufora cyklicznego (jeden producent,
+// jeden konsument), wątek w tle opróżnia bufory i przekazuje zdarzenia do EventSink w kolejności czasu.
+// Gdy rejestrator nie jest uruchomiony, record() kończy się na odczycie jednego pola volatile.
+// Bufor, który zapełni się, zanim wątek piszący go opróżni, producent zastępuje dwa razy większym
+// (stary zostaje dołączony przez next i opróżniony do końca), więc pojemność dopasowuje się do
+// tempa zdarzeń między przebiegami wątku piszącego. Po wyczerpaniu budżetu pamięci zdarzenia giną, a w trybie
+// bez strat (lossless, np. dla SafetyChecker) filozof czeka, aż wątek piszący zrobi miejsce w buforze.
+class EventLog {
+    private static final long DRAIN_INTERVAL_NANOS = 1_000_000;
+    private static final int PENDING_STRIDE = 8; // jedna linia pamięci podręcznej na filozofa
+    private static final VarHandle PENDING = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int INITIAL_CAPACITY = 256;
+    private static final VarHandle RINGS = MethodHandles.arrayElementVarHandle(Ring[].class);
+    
+    private static volatile EventLog active;
+    
+    private final Ring[] rings; // bufory, do których piszą filozofowie
+    // Bufory opróżniane przez wątek piszący, mogą być starsze niż rings; filozof ustawia tu
+    // tylko swój pierwszy bufor, potem zmienia je wyłącznie wątek piszący
+    private final Ring[] reading;
+    private final long[] dropped; // zapisuje tylko filozof, odczyt po stop()
+    // Dolne ograniczenie znacznika czasu zdarzenia, które filozof właśnie zapisuje (Long.MAX_VALUE - żadnego).
+    // Wątek piszący przekazuje tylko zdarzenia starsze niż minimum z tych wartości i chwili przebiegu,
+    // więc żadne później opublikowane zdarzenie nie ma wcześniejszego czasu - także gdy filozof
+    // zostanie wywłaszczony między odczytem zegara a publikacją.
+    private final long[] pending;
+    private final int capacity;
+    private final AtomicLong budget; // bajty, które mogą jeszcze zająć powiększone bufory
+    private final EventSink sink;
+    private final boolean lossless;
+    private final Thread writer;
+    private volatile boolean running = true;
+    
+    // Kopiec filozofów z czasem ich najstarszego zdarzenia, używa go tylko wątek piszący
+    private final int[] heap;
+    private final long[] heapTimes;
+    
+    private EventLog(int philosophers, int capacity, EventSink sink, boolean lossless) {
+        this.rings = new Ring[philosophers];
+        this.reading = new Ring[philosophers];
+        this.dropped = new long[philosophers];
+        this.pending = new long[philosophers * PENDING_STRIDE];
+        Arrays.fill(pending, Long.MAX_VALUE);
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.budget = new AtomicLong(Runtime.getRuntime().maxMemory() / 4);
+        this.heap = new int[philosophers];
+        this.heapTimes = new long[philosophers];
+        this.sink = sink;
+        this.lossless = lossless;
+        this.writer = new Thread(this::drainLoop, "event-log-writer");
+        this.writer.setDaemon(true);
+    }
+    
+    static EventLog start(int philosophers, EventSink sink) {
+        return start(philosophers, INITIAL_CAPACITY, sink, false);
+    }
+    
+    static EventLog start(int philosophers, EventSink sink, boolean lossless) {
+        return start(philosophers, INITIAL_CAPACITY, sink, lossless);
+    }
+    
+    // capacity - początkowa liczba zdarzeń w buforze jednego filozofa (zaokrąglana w górę do potęgi dwójki)
+    static synchronized EventLog start(int philosophers, int capacity, EventSink sink, boolean lossless) {
+        if (active != null) {
+            throw new IllegalStateException("Rejestrator zdarzeń już działa");
+        }
+        EventLog log = new EventLog(philosophers, capacity, sink, lossless);
+        log.writer.start();
+        active = log;
+        return log;
+    }
+    
+    static void record(int philosopher, EventType type) {
+        record(philosopher, type, -1);
+    }
+    
+    // TAKE_FORK zapisujemy po podniesieniu widelca, PUT_FORK przed odłożeniem,
+    // dzięki temu kolejność znaczników czasu jest zgodna z faktyczną kolejnością właścicieli widelca
+    static void record(int philosopher, EventType type, int fork) {
+        EventLog log = active;
+        if (log != null) {
+            log.append(philosopher, ((long) (fork + 1) << 8) | type.ordinal());
+        }
+    }
+    
+    private void append(int philosopher, long value) {
+        int slot = philosopher * PENDING_STRIDE;
+        // najpierw ograniczenie (zapis volatile), dopiero potem znacznik czasu zdarzenia
+        PENDING.setVolatile(pending, slot, System.nanoTime());
+        try {
+            add(philosopher, value, System.nanoTime());
+        } finally {
+            PENDING.setRelease(pending, slot, Long.MAX_VALUE);
+        }
+    }
+    
+    private void add(int philosopher, long value, long time) {
+        Ring ring = ring(philosopher);
+        if (ring.add(value, time)) {
+            return;
+        }
+        // Pełny bufor: wątek piszący nie nadąża między przebiegami, więc bufor jest za mały na to tempo
+        int larger = ring.slots.length; // dwa razy więcej zdarzeń niż w starym buforze
+        long bytes = 2L * larger * Long.BYTES;
+        if (larger > 1 << 28 || budget.addAndGet(-bytes) < 0) {
+            if (larger <= 1 << 28) {
+                budget.addAndGet(bytes);
+            }
+            if (!lossless) {
+                dropped[philosopher]++;
+                return;
+            }
+            // Czekając, filozof zwalnia ograniczenie, żeby wątek piszący mógł opróżnić jego bufor, i bierze
+            // nowy znacznik czasu. Kolejność właścicieli widelca zostaje, bo TAKE_FORK i tak jest po
+            // podniesieniu, a PUT_FORK przed odłożeniem - filozof czeka z widelcem w ręku.
+            int slot = philosopher * PENDING_STRIDE;
+            do {
+                if (!writer.isAlive()) {
+                    dropped[philosopher]++; // wątek piszący padł, czekanie nic nie da
+                    return;
+                }
+                PENDING.setRelease(pending, slot, Long.MAX_VALUE);
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS / 10);
+                PENDING.setVolatile(pending, slot, System.nanoTime());
+            } while (!ring.add(value, System.nanoTime()));
+            return;
+        }
+        Ring next = new Ring(larger);
+        next.add(value, time);
+        Ring.NEXT.setRelease(ring, next); // po ostatnim zapisie do starego bufora
+        RINGS.setRelease(rings, philosopher, next);
+    }
+    
+    // Zatrzymuje rejestrator, przekazuje pozostałe zdarzenia i zwraca liczbę zgubionych (pełny bufor)
+    synchronized long stop() throws InterruptedException {
+        if (active == this) {
+            active = null;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+        long total = 0;
+        for (long d : dropped) {
+            total += d;
+        }
+        return total;
+    }
+    
+    private Ring ring(int philosopher) {
+        Ring ring = (Ring) RINGS.getAcquire(rings, philosopher);
+        if (ring == null) {
+            // Bufor tworzy tylko jego właściciel, więc wystarczy publikacja bez CAS
+            ring = new Ring(capacity);
+            budget.addAndGet(-2L * capacity * Long.BYTES);
+            // wątek piszący zaczyna od pierwszego bufora, nawet gdy ten zdążył już zostać zastąpiony
+            RINGS.setRelease(reading, philosopher, ring);
+            RINGS.setRelease(rings, philosopher, ring);
+        }
+        return ring;
+    }
+    
+    private void drainLoop() {
+        while (running) {
+            drain(watermark());
+            LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+        }
+        drain(Long.MAX_VALUE);
+    }
+    
+    private long watermark() {
+        long watermark = System.nanoTime();
+        for (int slot = 0; slot < pending.length; slot += PENDING_STRIDE) {
+            watermark = Math.min(watermark, (long) PENDING.getVolatile(pending, slot));
+        }
+        return watermark;
+    }
+    
+    // Przekazuje zdarzenia starsze niż watermark, scalając bufory kopcem po czasie najstarszego
+    // zdarzenia - bez kopiowania i sortowania porcji, więc pamięć przebiegu nie zależy od liczby zdarzeń
+    private int drain(long watermark) {
+        int size = 0;
+        for (int id = 0; id < reading.length; id++) {
+            long time = peek(id);
+            if (time < watermark) {
+                heap[size] = id;
+                heapTimes[size] = time;
+                size++;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i, size);
+        }
+        int count = 0;
+        while (size > 0) {
+            int id = heap[0];
+            Ring ring = reading[id];
+            long head = ring.head;
+            int slot = (int) (head & ring.mask) << 1;
+            long value = ring.slots[slot];
+            Ring.HEAD.setRelease(ring, head + 1);
+            sink.accept(id, EventType.of((int) (value & 0xff)), (int) (value >>> 8) - 1, heapTimes[0]);
+            count++;
+            long time = peek(id);
+            if (time < watermark) {
+                heapTimes[0] = time;
+            } else {
+                size--;
+                heap[0] = heap[size];
+                heapTimes[0] = heapTimes[size];
+            }
+            siftDown(0, size);
+        }
+        if (count > 0) {
+            sink.flush();
+        }
+        return count;
+    }
+    
+    // Czas najstarszego nieprzekazanego zdarzenia filozofa albo Long.MAX_VALUE
+    private long peek(int id) {
+        Ring ring = (Ring) RINGS.getAcquire(reading, id);
+        if (ring == null) {
+            return Long.MAX_VALUE;
+        }
+        while (true) {
+            long head = ring.head;
+            if (head < (long) Ring.TAIL.getAcquire(ring)) {
+                return ring.slots[((int) (head & ring.mask) << 1) + 1];
+            }
+            // opróżniony bufor zastąpiony większym: next ustawiony po ostatnim zapisie,
+            // więc ogon odczytany po next jest już ostateczny
+            Ring next = (Ring) Ring.NEXT.getAcquire(ring);
+            if (next == null) {
+                return Long.MAX_VALUE;
+            }
+            if (head < (long) Ring.TAIL.getAcquire(ring)) {
+                continue;
+            }
+            budget.addAndGet((long) ring.slots.length * Long.BYTES);
+            ring = next;
+            reading[id] = ring;
+        }
+    }
+    
+    private void siftDown(int i, int size) {
+        int id = heap[i];
+        long time = heapTimes[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heapTimes[child + 1] < heapTimes[child]) {
+                child++;
+            }
+            if (heapTimes[child] >= time) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapTimes[i] = heapTimes[child];
+            i = child;
+        }
+        heap[i] = id;
+        heapTimes[i] = time;
+    }
+    
+    // Bufor cykliczny jednego filozofa: pary (dane, czas) w jednej tablicy
+    static final class Ring {
+        static final VarHandle HEAD;
+        static final VarHandle TAIL;
+        static final VarHandle NEXT;
+        
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HEAD = lookup.findVarHandle(Ring.class, "head", long.class);
+                TAIL = lookup.findVarHandle(Ring.class, "tail", long.class);
+                NEXT = lookup.findVarHandle(Ring.class, "next", Ring.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+        
+        final long[] slots;
+        final int mask;
+        volatile long head;
+        volatile long tail;
+        volatile Ring next;
+        
+        Ring(int capacity) {
+            this.slots = new long[capacity * 2];
+            this.mask = capacity - 1;
+        }
+        
+        boolean add(long value, long time) {
+            long t = (long) TAIL.getOpaque(this);
+            if (t - (long) HEAD.getAcquire(this) > mask) {
+                return false;
+            }
+            int slot = (int) (t & mask) << 1;
+            slots[slot] = value;
+            slots[slot + 1] = time;
+            TAIL.setRelease(this, t + 1);
+            return true;
+        }
+    }
+    
+    // Wypisuje zdarzenia jako "Filozof 3 podnosi widelec 4" przez jeden bufor, bez blokady na każdą linię
+    static class PrintSink implements EventSink {
+        private final PrintWriter out;
+        private final StringBuilder line = new StringBuilder(64);
+        
+        PrintSink(OutputStream out) {
+            this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+        }
+        
+        @Override
+        public void accept(int philosopher, EventType type, int fork, long nanoTime) {
+            line.setLength(0);
+            line.append("Filozof ").append(philosopher).append(' ').append(type.text);
+            if (fork >= 0) {
+                line.append(' ').append(fork);
+            }
+            out.println(line);
+        }
+        
+        @Override
+        public void flush() {
+            out.flush();
+        }
+    }
+}
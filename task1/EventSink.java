@@ -0,0 +1,30 @@
+// Odbiorca zdarzeń z EventLog; wywoływany tylko z wątku opróżniającego bufory,
+// zdarzenia przychodzą w kolejności znaczników czasu. fork == -1 gdy zdarzenie nie dotyczy widelca.
+interface EventSink {
+    void accept(int philosopher, EventType type, int fork, long nanoTime);
+    
+    default void flush() {
+    }
+    
+    // Przekazuje każde zdarzenie po kolei do wszystkich odbiorców, np. wypisywanie i kontrola naraz
+    static EventSink tee(EventSink... sinks) {
+        if (sinks.length == 1) {
+            return sinks[0];
+        }
+        return new EventSink() {
+            @Override
+            public void accept(int philosopher, EventType type, int fork, long nanoTime) {
+                for (EventSink sink : sinks) {
+                    sink.accept(philosopher, type, fork, nanoTime);
+                }
+            }
+            
+            @Override
+            public void flush() {
+                for (EventSink sink : sinks) {
+                    sink.flush();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Zapis zdarzeń do pliku binarnego i odtwarzanie ich później, np. do SafetyChecker.
+// Nagłówek: liczba filozofów i posiłków; potem rekordy po 17 bajtów:
+// czas (long), filozof (int), widelec (int, -1 gdy brak), rodzaj zdarzenia (byte).
+class EventTrace {
+    static final int RECORD_BYTES = Long.BYTES + 2 * Integer.BYTES + 1;
+    private static final int MAGIC = 0x46494c5a; // "FILZ"
+    
+    final int philosophers;
+    final int meals;
+    private final Path file;
+    
+    private EventTrace(Path file, int philosophers, int meals) {
+        this.file = file;
+        this.philosophers = philosophers;
+        this.meals = meals;
+    }
+    
+    static EventTrace open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // czyta do końca nagłówka
+            }
+            header.flip();
+            if (header.remaining() < header.capacity() || header.getInt() != MAGIC) {
+                throw new IOException("To nie jest plik zdarzeń: " + file);
+            }
+            return new EventTrace(file, header.getInt(), header.getInt());
+        }
+    }
+    
+    // Przekazuje wszystkie zdarzenia do sink, zwraca ich liczbę
+    long replay(EventSink sink) throws IOException {
+        EventType[] types = EventType.values();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 8192);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(3 * Integer.BYTES);
+            while (channel.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    break; // urwany ostatni rekord
+                }
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    long time = buffer.getLong();
+                    int philosopher = buffer.getInt();
+                    int fork = buffer.getInt();
+                    sink.accept(philosopher, types[buffer.get()], fork, time);
+                    count++;
+                }
+                buffer.compact();
+            }
+        }
+        sink.flush();
+        return count;
+    }
+    
+    // Odbiorca, który zapisuje zdarzenia do pliku; flush() wywołuje EventLog po każdej porcji
+    static class Writer implements EventSink, AutoCloseable {
+        private final DataOutputStream out;
+        
+        Writer(Path file, int philosophers, int meals) {
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(philosophers);
+                out.writeInt(meals);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void accept(int philosopher, EventType type, int fork, long nanoTime) {
+            try {
+                out.writeLong(nanoTime);
+                out.writeInt(philosopher);
+                out.writeInt(fork);
+                out.writeByte(type.ordinal());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void flush() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
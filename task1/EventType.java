@@ -0,0 +1,29 @@
+// Rodzaje zdarzeń zapisywanych przez EventLog; text to opis do wypisania na konsolę
+enum EventType {
+    THINK("myśli"),
+    HUNGRY("jest głodny"),
+    EAT("je"),
+    TAKE_FORK("podnosi widelec"),
+    PUT_FORK("odkłada widelec"),
+    COIN("rzuca monetą, pierwszy widelec"),
+    ARBITER_GRANT("otrzymał pozwolenie od arbitra"),
+    ARBITER_RETURN("zwraca pozwolenie arbitrowi"),
+    ENTER_ROOM("wchodzi do jadalni"),
+    LEAVE_ROOM("opuszcza jadalnię"),
+    CORRIDOR("je na korytarzu (odwrotna kolejność)"),
+    PREEMPTED("wywłaszczony przez strażnika zakleszczeń, odłożył widelce"),
+    DEADLINE_MISS("przekroczył termin czekania na widelce"),
+    DONE("zakończył jedzenie");
+    
+    private static final EventType[] VALUES = values();
+    
+    final String text;
+    
+    EventType(String text) {
+        this.text = text;
+    }
+    
+    static EventType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Widelec wspólny dla wszystkich rozwiązań
+class Fork {
+    private final int id;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ForkStats stats; // null - bez metryk
+    private long acquiredAt; // używa tylko bieżący właściciel
+    
+    public Fork(int id) {
+        this(id, null);
+    }
+    
+    public Fork(int id, ForkStats stats) {
+        this.id = id;
+        this.stats = stats;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    // Czekanie można przerwać - tak DeadlockWatchdog wywłaszcza ofiarę zakleszczenia
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        if (stats != null) {
+            acquired();
+        }
+    }
+    
+    public boolean tryAcquire() {
+        if (lock.tryLock()) {
+            if (stats != null) {
+                acquired();
+            }
+            return true;
+        }
+        if (stats != null) {
+            stats.failed();
+        }
+        return false;
+    }
+    
+    // Czeka najpóźniej do deadline (wg System.nanoTime()); false, gdy termin minął
+    public boolean tryAcquire(long deadline) throws InterruptedException {
+        if (lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            if (stats != null) {
+                acquired();
+            }
+            return true;
+        }
+        if (stats != null) {
+            stats.failed();
+        }
+        return false;
+    }
+    
+    public void release() {
+        if (stats != null) {
+            stats.released(System.nanoTime() - acquiredAt);
+        }
+        lock.unlock();
+    }
+    
+    // Podnosi widelce w podanej kolejności; gdy czekanie na drugi zostanie przerwane,
+    // odkłada pierwszy, żeby nie zostawić go zajętego
+    static void acquireInOrder(int philosopher, Fork first, Fork second) throws InterruptedException {
+        first.acquire();
+        EventLog.record(philosopher, EventType.TAKE_FORK, first.getId());
+        try {
+            second.acquire();
+        } catch (InterruptedException e) {
+            EventLog.record(philosopher, EventType.PUT_FORK, first.getId());
+            first.release();
+            throw e;
+        }
+        EventLog.record(philosopher, EventType.TAKE_FORK, second.getId());
+    }
+    
+    // Oba widelce albo żaden: podnosi je w kolejności numerów (jak StickyForkSolution, więc bez
+    // zakleszczenia), a gdy minie termin albo czekanie zostanie przerwane, odkłada już trzymany
+    static boolean tryAcquireBoth(int philosopher, Fork leftFork, Fork rightFork, long deadline)
+            throws InterruptedException {
+        Fork first = leftFork.getId() < rightFork.getId() ? leftFork : rightFork;
+        Fork second = first == leftFork ? rightFork : leftFork;
+        if (!first.tryAcquire(deadline)) {
+            return false;
+        }
+        boolean both = false;
+        try {
+            both = second.tryAcquire(deadline);
+        } finally {
+            if (!both) {
+                first.release();
+            }
+        }
+        if (!both) {
+            return false;
+        }
+        EventLog.record(philosopher, EventType.TAKE_FORK, first.getId());
+        EventLog.record(philosopher, EventType.TAKE_FORK, second.getId());
+        return true;
+    }
+    
+    private void acquired() {
+        acquiredAt = System.nanoTime();
+        stats.acquired();
+    }
+}
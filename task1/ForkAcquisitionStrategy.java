@@ -0,0 +1,8 @@
+// Rozwiązania różnią się tylko sposobem podnoszenia i odkładania widelców
+interface ForkAcquisitionStrategy {
+    // Zwraca liczbę przegranych prób przed zdobyciem widelców (nieudane tryAcquire albo sąsiedzi,
+    // którzy zaczęli jeść przed nami); rozwiązania czekające na zamku, które tego nie wiedzą, zwracają 0
+    int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException;
+    
+    void release(int id, Fork leftFork, Fork rightFork);
+}
@@ -0,0 +1,89 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Stan widelców jako bity w tablicy long (1 = widelec zajęty) zamiast osobnego obiektu na widelec.
+//   packed - 64 widelce w jednym słowie; gdy oba widelce filozofa są w tym samym słowie,
+//            podnosi je jeden CAS, ale sąsiednie słowa dzielą linię pamięci podręcznej
+//   padded - jeden widelec na 64-bajtową linię, bez fałszywego współdzielenia, zawsze dwa CAS-y
+class ForkBitmap {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int LINE_LONGS = 8;
+    
+    private final long[] words;
+    private final boolean padded;
+    
+    private ForkBitmap(int n, boolean padded) {
+        this.padded = padded;
+        this.words = padded ? new long[(n + 2) * LINE_LONGS] : new long[(n + 63) >>> 6];
+    }
+    
+    static ForkBitmap packed(int n) {
+        return new ForkBitmap(n, false);
+    }
+    
+    static ForkBitmap padded(int n) {
+        return new ForkBitmap(n, true);
+    }
+    
+    private int word(int fork) {
+        // w wariancie wyrównanym pierwsza linia jest pustym wypełnieniem
+        return padded ? (fork + 1) * LINE_LONGS : fork >>> 6;
+    }
+    
+    private long bit(int fork) {
+        return padded ? 1L : 1L << (fork & 63);
+    }
+    
+    public boolean tryAcquire(int fork) {
+        int word = word(fork);
+        long bit = bit(fork);
+        long current = (long) WORDS.getVolatile(words, word);
+        while ((current & bit) == 0) {
+            long witness = (long) WORDS.compareAndExchange(words, word, current, current | bit);
+            if (witness == current) {
+                return true;
+            }
+            current = witness; // zmienił się inny bit w słowie, próbujemy dalej
+        }
+        return false;
+    }
+    
+    // Podnosi oba widelce albo żadnego; first jest próbowany jako pierwszy, gdy są w różnych słowach
+    public boolean tryAcquireBoth(int first, int second) {
+        int word = word(first);
+        if (word == word(second)) {
+            long mask = bit(first) | bit(second);
+            long current = (long) WORDS.getVolatile(words, word);
+            while ((current & mask) == 0) {
+                long witness = (long) WORDS.compareAndExchange(words, word, current, current | mask);
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+            return false;
+        }
+        if (!tryAcquire(first)) {
+            return false;
+        }
+        if (tryAcquire(second)) {
+            return true;
+        }
+        release(first);
+        return false;
+    }
+    
+    public void release(int fork) {
+        WORDS.getAndBitwiseAndRelease(words, word(fork), ~bit(fork));
+    }
+    
+    public void releaseBoth(int first, int second) {
+        int word = word(first);
+        if (word == word(second)) {
+            WORDS.getAndBitwiseAndRelease(words, word, ~(bit(first) | bit(second)));
+        } else {
+            release(second);
+            release(first);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Widelec jako proces-serwer, jak w rozwiązaniu CSP: stan widelca zna tylko serwer, filozofowie
+// wysyłają mu komunikaty PICK i PUT, a zgodę na podniesienie odbierają z własnego kanału.
+// Widelec ma dwóch klientów, a każdy z nich ma w skrzynce najwyżej PUT i następne PICK,
+// więc skrzynka na MAILBOX komunikatów nigdy się nie zapełnia. Filozof czeka naraz na jedną zgodę
+// i odbiera ją przed następnym PICK, więc kanał zgód ma jedno miejsce, a serwer wkłada do niego
+// zgodę przez offer, nie czekając na odbiorcę - nie blokuje wątku ani zadania na puli.
+// Złamanie protokołu (pełna skrzynka, nieodebrana zgoda) serwer zgłasza do onFailure i przestaje działać;
+// ForkServerSolution budzi wtedy czekających filozofów, a Table.run przerywa ucztę z tym błędem.
+abstract class ForkServer {
+    static final int MAILBOX = 4;
+    private static final int PICK = 0;
+    private static final int PUT = 1;
+    private static final int NONE = -1;
+    
+    private final int id;
+    private final List<BlockingQueue<Integer>> replies;
+    private final Consumer<RuntimeException> onFailure;
+    // Używa tylko wątek obsługujący skrzynkę
+    private int holder = NONE;
+    private int waiting = NONE;
+    
+    ForkServer(int id, List<BlockingQueue<Integer>> replies, Consumer<RuntimeException> onFailure) {
+        this.id = id;
+        this.replies = replies;
+        this.onFailure = onFailure;
+    }
+    
+    int getId() {
+        return id;
+    }
+    
+    void pick(int philosopher) {
+        send(philosopher << 1 | PICK);
+    }
+    
+    void put(int philosopher) {
+        send(philosopher << 1 | PUT);
+    }
+    
+    abstract void send(int message);
+    
+    abstract void close();
+    
+    void fail(RuntimeException e) {
+        onFailure.accept(e);
+    }
+    
+    // Pełna skrzynka to błąd protokołu: zgłaszamy go jak błąd serwera, a nadawca go rzuca
+    IllegalStateException rejected() {
+        IllegalStateException e = new IllegalStateException("Pełna skrzynka widelca " + id);
+        fail(e);
+        return e;
+    }
+    
+    void handle(int message) {
+        int philosopher = message >>> 1;
+        if ((message & 1) == PICK) {
+            if (holder == NONE) {
+                grant(philosopher);
+            } else {
+                waiting = philosopher;
+            }
+        } else {
+            holder = NONE;
+            if (waiting != NONE) {
+                int next = waiting;
+                waiting = NONE;
+                grant(next);
+            }
+        }
+    }
+    
+    private void grant(int philosopher) {
+        holder = philosopher;
+        if (!replies.get(philosopher).offer(id)) {
+            throw new IllegalStateException("Filozof " + philosopher + " nie odebrał poprzedniej zgody");
+        }
+    }
+    
+    // Serwer na własnym wątku (wirtualnym albo systemowym) czekającym na skrzynce
+    static final class ThreadServer extends ForkServer {
+        private final ArrayBlockingQueue<Integer> mailbox = new ArrayBlockingQueue<>(MAILBOX);
+        private final Thread thread;
+        
+        ThreadServer(int id, List<BlockingQueue<Integer>> replies, Consumer<RuntimeException> onFailure,
+                     Thread.Builder builder) {
+            super(id, replies, onFailure);
+            this.thread = builder.start(this::serve);
+        }
+        
+        private void serve() {
+            try {
+                while (true) {
+                    handle(mailbox.take());
+                }
+            } catch (InterruptedException e) {
+                // close()
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        
+        @Override
+        void send(int message) {
+            if (!mailbox.offer(message)) {
+                throw rejected();
+            }
+        }
+        
+        @Override
+        void close() {
+            thread.interrupt();
+        }
+    }
+    
+    // Aktor: bez własnego wątku, skrzynkę opróżnia zadanie na puli (np. ForkJoinPool z kradzieżą pracy),
+    // planowane tylko wtedy, gdy skrzynka nie jest już obsługiwana; zadanie nigdy nie czeka
+    static final class Actor extends ForkServer {
+        private final ArrayBlockingQueue<Integer> mailbox = new ArrayBlockingQueue<>(MAILBOX);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Executor pool;
+        
+        Actor(int id, List<BlockingQueue<Integer>> replies, Consumer<RuntimeException> onFailure, Executor pool) {
+            super(id, replies, onFailure);
+            this.pool = pool;
+        }
+        
+        @Override
+        void send(int message) {
+            if (!mailbox.offer(message)) {
+                throw rejected();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                Integer message;
+                while ((message = mailbox.poll()) != null) {
+                    handle(message);
+                }
+            } catch (RuntimeException e) {
+                // scheduled zostaje ustawione, więc aktor po błędzie nie dostaje już zadań
+                fail(e);
+                return;
+            }
+            scheduled.set(false);
+            // komunikat mógł przyjść między ostatnim poll a zdjęciem znacznika
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                pool.execute(this::drain);
+            }
+        }
+        
+        @Override
+        void close() {
+        }
+    }
+}
@@ -0,0 +1,35 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Liczniki jednego widelca: udane podniesienia, nieudane tryAcquire i histogram czasu trzymania
+// w kubełkach potęg dwójki mikrosekund (kubełek k: [2^(k-1), 2^k) us, kubełek 0: poniżej 1 us)
+class ForkStats {
+    static final int HOLD_BUCKETS = 32;
+    
+    final LongAdder acquisitions = new LongAdder();
+    final LongAdder failedTryAcquires = new LongAdder();
+    final LongAdder holdNanos = new LongAdder();
+    final AtomicLongArray holdHistogram = new AtomicLongArray(HOLD_BUCKETS);
+    
+    void acquired() {
+        acquisitions.increment();
+    }
+    
+    void failed() {
+        failedTryAcquires.increment();
+    }
+    
+    void released(long heldNanos) {
+        holdNanos.add(heldNanos);
+        int bucket = Math.min(HOLD_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(heldNanos / 1000));
+        holdHistogram.incrementAndGet(bucket);
+    }
+    
+    long[] holdHistogram() {
+        long[] copy = new long[HOLD_BUCKETS];
+        for (int i = 0; i < HOLD_BUCKETS; i++) {
+            copy[i] = holdHistogram.get(i);
+        }
+        return copy;
+    }
+}
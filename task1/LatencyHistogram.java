@@ -0,0 +1,77 @@
+// Histogram opóźnień w nanosekundach: kubełki log-liniowe (32 pod-kubełki na potęgę dwójki,
+// błąd względny ~3%). Zapisuje jeden wątek, odczyt po zakończeniu pomiaru (merge + percentile).
+class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    
+    private final long[] counts = new long[(64 - SUB_BITS + 1) << SUB_BITS];
+    private long total;
+    private long max;
+    
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[index(nanos)]++;
+        total++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+    
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+    
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    // p w zakresie (0, 100]
+    public long percentile(double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), max);
+            }
+        }
+        return max;
+    }
+    
+    private static int index(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+    
+    private static long lowerBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int bucket = index >>> SUB_BITS;
+        int sub = index & (SUB_COUNT - 1);
+        return (long) (SUB_COUNT + sub) << (bucket - 1);
+    }
+}
@@ -1,622 +1,999 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.Random;
 
 //1: NAIWNE
-class NaiveSolution {
-    static class Fork {
-        private final int id;
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
-        }
+class NaiveSolution implements ForkAcquisitionStrategy {
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        Fork.acquireInOrder(id, leftFork, rightFork);
+        return 0;
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
-        }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        @Override
-        public void run() {
-            try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    
-                    synchronized (leftFork) {
-                        System.out.println("Filozof " + id + " podnosi lewy widelec " + leftFork.getId());
-                        
-                        synchronized (rightFork) {
-                            System.out.println("Filozof " + id + " podnosi prawy widelec " + rightFork.getId());
-                            eat();
-                            System.out.println("Filozof " + id + " odkłada prawy widelec " + rightFork.getId());
-                        }
-                        
-                        System.out.println("Filozof " + id + " odkłada lewy widelec " + leftFork.getId());
-                    }
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+    }
+}
+
+//2: Z MOŻLIWOŚCIĄ ZAGŁODZENIA
+class StarvationSolution extends RetryingSolution {
+    public StarvationSolution(Backoff backoff) {
+        super(backoff);
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            if (leftFork.tryAcquire()) {
+                if (rightFork.tryAcquire()) {
+                    acquired(attempt);
+                    EventLog.record(id, EventType.TAKE_FORK, leftFork.getId());
+                    EventLog.record(id, EventType.TAKE_FORK, rightFork.getId());
+                    return attempt;
                 }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                leftFork.release();
             }
+            retry(++attempt);
         }
     }
     
-    public static void run() throws InterruptedException {
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
-        }
-        
-        for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6));
-            philosophers[i].start();
-        }
-        
-        for (Philosopher p : philosophers) {
-            p.join();
-        }
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
     }
 }
 
-//2: Z MOŻLIWOŚCIĄ ZAGŁODZENIA
-class StarvationSolution {
-    static class Fork {
-        private final int id;
-        private final ReentrantLock lock = new ReentrantLock();
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
-        }
-        
-        public boolean tryAcquire() {
-            return lock.tryLock();
+//3: ASYMETRYCZNE
+class AsymmetricSolution implements ForkAcquisitionStrategy {
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        if (id % 2 == 0) {
+            Fork.acquireInOrder(id, rightFork, leftFork);
+        } else {
+            Fork.acquireInOrder(id, leftFork, rightFork);
+        }
+        return 0;
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+    }
+}
+
+//4: STOCHASTYCZNE
+class StochasticSolution extends RetryingSolution {
+    public StochasticSolution(Backoff backoff) {
+        super(backoff);
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        boolean leftFirst = ThreadLocalRandom.current().nextBoolean();
+        Fork first = leftFirst ? leftFork : rightFork;
+        Fork second = leftFirst ? rightFork : leftFork;
+        
+        EventLog.record(id, EventType.COIN, first.getId());
+        
+        int attempt = 0;
+        while (true) {
+            if (first.tryAcquire()) {
+                if (second.tryAcquire()) {
+                    acquired(attempt);
+                    EventLog.record(id, EventType.TAKE_FORK, first.getId());
+                    EventLog.record(id, EventType.TAKE_FORK, second.getId());
+                    return attempt;
+                }
+                first.release();
+            }
+            retry(++attempt);
         }
-        
-        public void release() {
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+    }
+}
+
+//7, 8: STOCHASTYCZNE NA MAPIE BITOWEJ
+// Ten sam protokół co StochasticSolution, ale stan widelców trzyma ForkBitmap, a nie obiekty Fork
+class BitmapStochasticSolution extends RetryingSolution {
+    private final ForkBitmap forks;
+    
+    public BitmapStochasticSolution(ForkBitmap forks, Backoff backoff) {
+        super(backoff);
+        this.forks = forks;
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        boolean leftFirst = ThreadLocalRandom.current().nextBoolean();
+        int first = leftFirst ? leftFork.getId() : rightFork.getId();
+        int second = leftFirst ? rightFork.getId() : leftFork.getId();
+        
+        EventLog.record(id, EventType.COIN, first);
+        
+        int attempt = 0;
+        while (!forks.tryAcquireBoth(first, second)) {
+            retry(++attempt);
+        }
+        acquired(attempt);
+        EventLog.record(id, EventType.TAKE_FORK, first);
+        EventLog.record(id, EventType.TAKE_FORK, second);
+        return attempt;
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        forks.releaseBoth(leftFork.getId(), rightFork.getId());
+    }
+}
+
+//5: Z ARBITREM
+class ArbiterSolution implements ForkAcquisitionStrategy, Arbiter {
+    private final Semaphore arbiter;
+    
+    public ArbiterSolution(int n) {
+        this.arbiter = new Semaphore(n - 1); // Maksymalnie n-1 filozofów
+    }
+    
+    @Override
+    public void enter(int id) throws InterruptedException {
+        arbiter.acquire();
+    }
+    
+    @Override
+    public void leave(int id) {
+        arbiter.release();
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        return Arbiter.acquire(this, id, leftFork, rightFork);
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        Arbiter.release(this, id, leftFork, rightFork);
+    }
+}
+
+//10: Z ARBITREM PASKOWYM
+// Stół podzielony na segmenty po segmentSize kolejnych filozofów. Segment ma własny semafor
+// z size - 1 pozwoleniami, więc zwykle filozof dotyka tylko licznika swojego segmentu, a nie
+// jednego semafora wspólnego dla całego stołu. Ostatni filozof pełnego segmentu może wejść na
+// pozwolenie globalne; tych jest segments - 1, więc wszystkie segmenty naraz nie będą pełne
+// i przy stole jest najwyżej n - 1 filozofów - jak w ArbiterSolution.
+// Gdy nie ma żadnego pozwolenia, filozof czeka na warunku "wolne pozwolenie segmentu albo globalne",
+// a nie na samym semaforze segmentu - inaczej nie zauważyłby zwolnionego pozwolenia globalnego,
+// a w segmencie z jednym filozofem (n % segmentSize == 1, zero pozwoleń) czekałby w nieskończoność.
+class StripedArbiterSolution implements ForkAcquisitionStrategy, Arbiter {
+    private final int segmentSize;
+    private final Semaphore[] local;
+    private final Semaphore global;
+    private final boolean[] usedGlobal; // zapisuje i czyta tylko wątek danego filozofa
+    // Wolna ścieżka: czekający liczą się w waiting, zanim spróbują pozwoleń, a zwalniający
+    // budzi ich tylko wtedy, gdy waiting > 0 - szybka ścieżka nie dotyka blokady
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    
+    public StripedArbiterSolution(int n, int segmentSize) {
+        this.segmentSize = segmentSize;
+        int segments = (n + segmentSize - 1) / segmentSize;
+        this.local = new Semaphore[segments];
+        for (int s = 0; s < segments; s++) {
+            int size = Math.min(segmentSize, n - s * segmentSize);
+            local[s] = new Semaphore(size - 1);
+        }
+        this.global = new Semaphore(segments - 1);
+        this.usedGlobal = new boolean[n];
+    }
+    
+    @Override
+    public void enter(int id) throws InterruptedException {
+        Semaphore segment = local[id / segmentSize];
+        if (tryEnter(id, segment)) {
+            return;
+        }
+        lock.lock();
+        waiting.incrementAndGet();
+        try {
+            while (!tryEnter(id, segment)) {
+                available.await();
+            }
+        } finally {
+            waiting.decrementAndGet();
             lock.unlock();
         }
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
+    private boolean tryEnter(int id, Semaphore segment) {
+        if (segment.tryAcquire()) {
+            usedGlobal[id] = false;
+            return true;
         }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+        if (global.tryAcquire()) {
+            usedGlobal[id] = true;
+            return true;
         }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+        return false;
+    }
+    
+    @Override
+    public void leave(int id) {
+        if (usedGlobal[id]) {
+            global.release();
+        } else {
+            local[id / segmentSize].release();
+        }
+        if (waiting.get() > 0) {
+            // pozwolenie globalne może się przydać czekającym z każdego segmentu
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
-        
-        @Override
-        public void run() {
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        return Arbiter.acquire(this, id, leftFork, rightFork);
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        Arbiter.release(this, id, leftFork, rightFork);
+    }
+}
+
+//6: Z JADALNIĄ
+// Pojemność jadalni może zmieniać Controller w zakresie [1, n - 1]: dopóki w jadalni jest ktoś,
+// kto bierze widelce w zwykłej kolejności, a reszta na korytarzu w odwrotnej, cykl nie powstanie
+class DiningRoomSolution implements ForkAcquisitionStrategy {
+    private final ResizableSemaphore diningRoom;
+    private final boolean[] inRoom; // zapisuje i czyta tylko wątek danego filozofa
+    private final int n;
+    // Liczniki dla Controller
+    private final LongAdder meals = new LongAdder();
+    private final LongAdder corridor = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    
+    public DiningRoomSolution(int n) {
+        this.n = n;
+        this.diningRoom = new ResizableSemaphore(n - 1);
+        this.inRoom = new boolean[n];
+    }
+    
+    int capacity() {
+        return diningRoom.getPermits();
+    }
+    
+    void setCapacity(int capacity) {
+        diningRoom.setPermits(Math.max(1, Math.min(n - 1, capacity)));
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        long start = System.nanoTime();
+        enter(id, leftFork, rightFork);
+        waitNanos.add(System.nanoTime() - start);
+        meals.increment();
+        return 0;
+    }
+    
+    private void enter(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        if (diningRoom.tryAcquire()) {
+            inRoom[id] = true;
+            EventLog.record(id, EventType.ENTER_ROOM);
             try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    
-                    while (true) {
-                        if (leftFork.tryAcquire()) {
-                            if (rightFork.tryAcquire()) {
-                                System.out.println("Filozof " + id + " podnosi oba widelce");
-                                eat();
-                                rightFork.release();
-                                leftFork.release();
-                                System.out.println("Filozof " + id + " odkłada oba widelce");
-                                break;
-                            } else {
-                                leftFork.release();
-                            }
-                        }
-                        Thread.sleep(10);
-                    }
-                }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
+                Fork.acquireInOrder(id, leftFork, rightFork);
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                EventLog.record(id, EventType.LEAVE_ROOM);
+                diningRoom.release();
+                throw e;
+            }
+        } else {
+            inRoom[id] = false;
+            corridor.increment();
+            EventLog.record(id, EventType.CORRIDOR);
+            TimelineEvents.Corridor event = TimelineEvents.ENABLED ? new TimelineEvents.Corridor() : null;
+            if (event != null) {
+                event.begin();
+            }
+            Fork.acquireInOrder(id, rightFork, leftFork);
+            if (event != null && event.shouldCommit()) {
+                event.philosopher = id;
+                event.firstFork = rightFork.getId();
+                event.secondFork = leftFork.getId();
+                event.commit();
             }
         }
     }
     
-    public static void run() throws InterruptedException {
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        if (inRoom[id]) {
+            EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+            rightFork.release();
+            EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+            leftFork.release();
+            EventLog.record(id, EventType.LEAVE_ROOM);
+            diningRoom.release();
+        } else {
+            EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+            leftFork.release();
+            EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+            rightFork.release();
+        }
+    }
+    
+    // Wspinaczka po pojemności jadalni: co okres porównuje przepustowość (posiłki/s) z poprzednim
+    // okresem i idzie dalej w tym samym kierunku, jeśli nie spadła, a przy remisie (±2%) - jeśli
+    // spadł średni czas oczekiwania. Gdy nikt nie trafił na korytarz, jadalnia nie jest pełna
+    // i powiększanie jej nic nie zmieni, więc wtedy tylko ją zmniejszamy.
+    static class Controller implements AutoCloseable {
+        private final DiningRoomSolution room;
+        private final ScheduledExecutorService timer;
+        private long lastTime = System.nanoTime();
+        private long lastMeals;
+        private long lastCorridor;
+        private long lastWait;
+        private double lastRate = -1;
+        private double lastAverageWait = Double.MAX_VALUE;
+        private int direction = -1;
+        private int minCapacity;
+        private int maxCapacity;
+        private int changes;
+        
+        Controller(DiningRoomSolution room, long periodMillis) {
+            this.room = room;
+            this.minCapacity = room.capacity();
+            this.maxCapacity = room.capacity();
+            this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dining-room-controller");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleAtFixedRate(this::adjust, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+        
+        private void adjust() {
+            long now = System.nanoTime();
+            long meals = room.meals.sum();
+            long corridor = room.corridor.sum();
+            long wait = room.waitNanos.sum();
+            long dMeals = meals - lastMeals;
+            long dCorridor = corridor - lastCorridor;
+            double rate = dMeals * 1e9 / (now - lastTime);
+            double averageWait = dMeals == 0 ? Double.MAX_VALUE : (double) (wait - lastWait) / dMeals;
+            lastTime = now;
+            lastMeals = meals;
+            lastCorridor = corridor;
+            lastWait = wait;
+            if (dMeals == 0) {
+                return;
+            }
+            
+            boolean better = rate > lastRate * 1.02 || (rate >= lastRate * 0.98 && averageWait <= lastAverageWait);
+            if (!better) {
+                direction = -direction;
+            }
+            if (direction > 0 && dCorridor == 0) {
+                direction = -1;
+            }
+            lastRate = rate;
+            lastAverageWait = averageWait;
+            
+            int capacity = room.capacity();
+            int step = Math.max(1, capacity / 8);
+            room.setCapacity(capacity + direction * step);
+            int updated = room.capacity();
+            if (updated != capacity) {
+                changes++;
+                minCapacity = Math.min(minCapacity, updated);
+                maxCapacity = Math.max(maxCapacity, updated);
+            }
         }
         
-        for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6));
-            philosophers[i].start();
+        String report() {
+            return String.format("Jadalnia: pojemność %d (od %d do %d, zmian %d)",
+                    room.capacity(), minCapacity, maxCapacity, changes);
         }
         
-        for (Philosopher p : philosophers) {
-            p.join();
+        @Override
+        public void close() {
+            timer.shutdownNow();
         }
     }
 }
 
-//3: ASYMETRYCZNE
-class AsymmetricSolution {
-    static class Fork {
-        private final int id;
-        private final Lock lock = new ReentrantLock();
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
-        }
-        
-        public void acquire() {
-            lock.lock();
-        }
-        
-        public void release() {
-            lock.unlock();
+//9: SPRAWIEDLIWY KELNER
+// Głodny filozof dostaje bilet; może jeść, gdy żaden sąsiad nie je i żaden głodny sąsiad nie ma
+// starszego biletu. Sąsiad może więc wyprzedzić czekającego filozofa najwyżej raz (kolejny bilet
+// sąsiada jest młodszy), co ogranicza czas oczekiwania - w przeciwieństwie do StarvationSolution.
+class FairWaiterSolution implements ForkAcquisitionStrategy {
+    private final ReentrantLock waiter = new ReentrantLock();
+    private final Condition[] turn;
+    private final long[] ticket; // 0 - filozof nie czeka
+    private final boolean[] eating;
+    private final int[] overtaken; // ilu sąsiadów zaczęło jeść, odkąd filozof czeka
+    private final int n;
+    private long nextTicket = 1;
+    
+    public FairWaiterSolution(int n) {
+        this.n = n;
+        this.turn = new Condition[n];
+        this.ticket = new long[n];
+        this.eating = new boolean[n];
+        this.overtaken = new int[n];
+        for (int i = 0; i < n; i++) {
+            turn[i] = waiter.newCondition();
         }
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
-        }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        @Override
-        public void run() {
+    private int leftOf(int id) {
+        return (id + n - 1) % n;
+    }
+    
+    private int rightOf(int id) {
+        return (id + 1) % n;
+    }
+    
+    private boolean blocks(int neighbor, int id) {
+        return eating[neighbor] || (ticket[neighbor] != 0 && ticket[neighbor] < ticket[id]);
+    }
+    
+    private boolean canEat(int id) {
+        return !blocks(leftOf(id), id) && !blocks(rightOf(id), id);
+    }
+    
+    private void wakeNeighbors(int id) {
+        turn[leftOf(id)].signal();
+        turn[rightOf(id)].signal();
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        int lost;
+        waiter.lock();
+        try {
+            ticket[id] = nextTicket++;
+            overtaken[id] = 0;
             try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    if (id % 2 == 0) {
-                        rightFork.acquire();
-                        System.out.println("Filozof " + id + " (parzysty) podnosi prawy widelec " + rightFork.getId());
-                        leftFork.acquire();
-                        System.out.println("Filozof " + id + " (parzysty) podnosi lewy widelec " + leftFork.getId());
-                    } else {
-                        leftFork.acquire();
-                        System.out.println("Filozof " + id + " (nieparzysty) podnosi lewy widelec " + leftFork.getId());
-                        rightFork.acquire();
-                        System.out.println("Filozof " + id + " (nieparzysty) podnosi prawy widelec " + rightFork.getId());
-                    }
-                    
-                    eat();
-                    
-                    leftFork.release();
-                    rightFork.release();
-                    System.out.println("Filozof " + id + " odkłada widelce");
+                while (!canEat(id)) {
+                    turn[id].await();
                 }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                ticket[id] = 0;
+                wakeNeighbors(id);
+                throw e;
+            }
+            ticket[id] = 0;
+            eating[id] = true;
+            lost = overtaken[id];
+            if (ticket[leftOf(id)] != 0) {
+                overtaken[leftOf(id)]++;
             }
+            if (ticket[rightOf(id)] != 0) {
+                overtaken[rightOf(id)]++;
+            }
+        } finally {
+            waiter.unlock();
         }
+        
+        // Kelner gwarantuje, że sąsiedzi nie jedzą, więc widelce są wolne
+        try {
+            Fork.acquireInOrder(id, leftFork, rightFork);
+        } catch (InterruptedException e) {
+            waiter.lock();
+            try {
+                eating[id] = false;
+                wakeNeighbors(id);
+            } finally {
+                waiter.unlock();
+            }
+            throw e;
+        }
+        return lost;
     }
     
-    public static void run() throws InterruptedException {
-        
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+        
+        waiter.lock();
+        try {
+            eating[id] = false;
+            wakeNeighbors(id);
+        } finally {
+            waiter.unlock();
         }
-        
+    }
+}
+//11: LEPKIE WIDELCE
+// Widelec zostaje u ostatniego użytkownika (StickyFork), dopóki sąsiad o niego nie poprosi, więc
+// filozof jedzący kilka razy z rzędu bez konkurencji nie dotyka blokad. Widelce podnosimy
+// w kolejności numerów - trzymając pierwszy i czekając na drugi, nie zamkniemy cyklu.
+// Jak w BitmapStochasticSolution stan widelców jest tu własny, obiekty Fork dają tylko numery.
+class StickyForkSolution implements ForkAcquisitionStrategy {
+    private final StickyFork[] forks;
+    
+    public StickyForkSolution(int n) {
+        this.forks = new StickyFork[n];
         for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6));
-            philosophers[i].start();
-        }
-        
-        for (Philosopher p : philosophers) {
-            p.join();
+            forks[i] = new StickyFork(i, n);
         }
     }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        StickyFork first = forks[Math.min(leftFork.getId(), rightFork.getId())];
+        StickyFork second = forks[Math.max(leftFork.getId(), rightFork.getId())];
+        first.acquire(id);
+        EventLog.record(id, EventType.TAKE_FORK, first.getId());
+        try {
+            second.acquire(id);
+        } catch (InterruptedException e) {
+            EventLog.record(id, EventType.PUT_FORK, first.getId());
+            first.release(id);
+            throw e;
+        }
+        EventLog.record(id, EventType.TAKE_FORK, second.getId());
+        return 0;
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        forks[rightFork.getId()].release(id);
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        forks[leftFork.getId()].release(id);
+    }
 }
 
-//4: STOCHASTYCZNE
-class StochasticSolution {
-    static class Fork {
-        private final int id;
-        private final AtomicBoolean available = new AtomicBoolean(true);
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
-        }
-        
-        public boolean tryAcquire() {
-            return available.compareAndSet(true, false);
+//12, 13: SERWERY WIDELCÓW
+// Bez wspólnej pamięci: każdy widelec to ForkServer, filozof prosi o widelce komunikatami
+// w kolejności z AsymmetricSolution i czeka na zgodę na swoim kanale. Serwery działają
+// na wątkach wirtualnych (12) albo jako aktorzy na ForkJoinPool (13); close() je zatrzymuje.
+// Gdy serwer zawiedzie, każdy czekający filozof dostaje FAILED zamiast zgody i rzuca błąd serwera.
+class ForkServerSolution implements ForkAcquisitionStrategy, AutoCloseable {
+    private static final int FAILED = -1;
+    
+    private final ForkServer[] servers;
+    private final List<BlockingQueue<Integer>> replies;
+    private final ForkJoinPool pool;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    
+    public ForkServerSolution(int n, boolean actors) {
+        this.replies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            replies.add(new ArrayBlockingQueue<>(1));
         }
-        
-        public void release() {
-            available.set(true);
+        this.pool = actors ? new ForkJoinPool(Runtime.getRuntime().availableProcessors()) : null;
+        this.servers = new ForkServer[n];
+        Thread.Builder builder = Thread.ofVirtual().name("widelec-", 0);
+        for (int i = 0; i < n; i++) {
+            servers[i] = actors ? new ForkServer.Actor(i, replies, this::fail, pool)
+                    : new ForkServer.ThreadServer(i, replies, this::fail, builder);
         }
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        private final Random random = new Random();
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
-        }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+    // Zapamiętuje pierwszy błąd i budzi czekających; filozof, którego kanał jest zajęty zgodą,
+    // zobaczy błąd po jej odebraniu
+    private void fail(RuntimeException e) {
+        if (failure.compareAndSet(null, e)) {
+            for (BlockingQueue<Integer> reply : replies) {
+                reply.offer(FAILED);
+            }
         }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+    }
+    
+    private void checkFailure(boolean interrupted) {
+        RuntimeException e = failure.get();
+        if (e != null) {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Serwer widelca przestał działać", e);
         }
-        
-        @Override
-        public void run() {
+    }
+    
+    // Czeka na zgodę serwera; przerwania nie da się tu obsłużyć od razu, bo serwer i tak wyda
+    // widelec, więc najpierw go odbieramy, a przerwanie zgłaszamy wywołującemu
+    private boolean awaitGrant(int id) {
+        boolean interrupted = false;
+        while (true) {
+            checkFailure(interrupted);
             try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    
-                    boolean leftFirst = random.nextBoolean();
-                    Fork first = leftFirst ? leftFork : rightFork;
-                    Fork second = leftFirst ? rightFork : leftFork;
-                    
-                    System.out.println("Filozof " + id + " rzuca monetą: " + (leftFirst ? "LEWY pierwszy" : "PRAWY pierwszy"));
-                    
-                    while (true) {
-                        if (first.tryAcquire()) {
-                            System.out.println("Filozof " + id + " podnosi pierwszy widelec " + first.getId());
-                            if (second.tryAcquire()) {
-                                System.out.println("Filozof " + id + " podnosi drugi widelec " + second.getId());
-                                eat();
-                                second.release();
-                                first.release();
-                                System.out.println("Filozof " + id + " odkłada widelce");
-                                break;
-                            } else {
-                                first.release();
-                            }
-                        }
-                        Thread.sleep(10);
-                    }
-                }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
+                replies.get(id).take();
+                checkFailure(interrupted);
+                return interrupted;
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                interrupted = true;
             }
         }
     }
     
-    public static void run() throws InterruptedException {
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
-        }
-        
-        for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6));
-            philosophers[i].start();
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        ForkServer first = servers[id % 2 == 0 ? rightFork.getId() : leftFork.getId()];
+        ForkServer second = servers[id % 2 == 0 ? leftFork.getId() : rightFork.getId()];
+        first.pick(id);
+        if (awaitGrant(id)) {
+            first.put(id);
+            throw new InterruptedException();
+        }
+        EventLog.record(id, EventType.TAKE_FORK, first.getId());
+        second.pick(id);
+        if (awaitGrant(id)) {
+            second.put(id);
+            EventLog.record(id, EventType.PUT_FORK, first.getId());
+            first.put(id);
+            throw new InterruptedException();
+        }
+        EventLog.record(id, EventType.TAKE_FORK, second.getId());
+        return 0;
+    }
+    
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        servers[leftFork.getId()].put(id);
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        servers[rightFork.getId()].put(id);
+    }
+    
+    @Override
+    public void close() {
+        for (ForkServer server : servers) {
+            server.close();
         }
-        
-        for (Philosopher p : philosophers) {
-            p.join();
+        if (pool != null) {
+            pool.shutdownNow();
         }
     }
 }
 
-//5: Z ARBITREM
-class ArbiterSolution {
-    static class Fork {
-        private final int id;
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
-        }
+//14: Z TERMINEM I PRIORYTETAMI
+// Filozof czeka na widelce najwyżej do terminu (Fork.tryAcquireBoth - oba albo żaden, czekanie
+// można przerwać). Po przekroczeniu terminu zapisuje chybienie i próbuje dalej z nowym terminem.
+// Co urgentEvery-ty filozof jest pilny: wsadowy sąsiad ustępuje mu, dopóki pilny czeka na wspólny
+// widelec, a sam czeka kawałkami po SLICE, żeby szybko zauważyć nowego pilnego.
+class DeadlineSolution implements ForkAcquisitionStrategy {
+    static final int URGENT = 0;
+    static final int BATCH = 1;
+    static final String[] CLASSES = {"pilni", "wsadowi"};
+    static final long SLICE = 1_000_000;
+    
+    private final long deadlineNanos;
+    private final int urgentEvery;
+    private final AtomicIntegerArray urgentWaiting; // pilni czekający na widelec
+    private final LatencyHistogram[] waits = {new LatencyHistogram(), new LatencyHistogram()};
+    private final LongAdder[] misses = {new LongAdder(), new LongAdder()};
+    
+    public DeadlineSolution(int n, long deadlineNanos, int urgentEvery) {
+        this.deadlineNanos = deadlineNanos;
+        this.urgentEvery = urgentEvery;
+        this.urgentWaiting = new AtomicIntegerArray(n);
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        private final Semaphore arbiter;
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals, Semaphore arbiter) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
-            this.arbiter = arbiter;
-        }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
-        }
-        
-        @Override
-        public void run() {
-            try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    
-                    arbiter.acquire();
-                    System.out.println("Filozof " + id + " otrzymał pozwolenie od arbitra");
-                    
-                    synchronized (leftFork) {
-                        System.out.println("Filozof " + id + " podnosi lewy widelec " + leftFork.getId());
-                        
-                        synchronized (rightFork) {
-                            System.out.println("Filozof " + id + " podnosi prawy widelec " + rightFork.getId());
-                            eat();
-                            System.out.println("Filozof " + id + " odkłada widelce");
-                        }
+    int priority(int id) {
+        return id % urgentEvery == 0 ? URGENT : BATCH;
+    }
+    
+    @Override
+    public int acquire(int id, Fork leftFork, Fork rightFork) throws InterruptedException {
+        int priority = priority(id);
+        int left = leftFork.getId();
+        int right = rightFork.getId();
+        long start = System.nanoTime();
+        long deadline = start + deadlineNanos;
+        int missed = 0;
+        if (priority == URGENT) {
+            urgentWaiting.incrementAndGet(left);
+            urgentWaiting.incrementAndGet(right);
+        }
+        try {
+            while (true) {
+                if (priority == URGENT) {
+                    if (Fork.tryAcquireBoth(id, leftFork, rightFork, deadline)) {
+                        break;
                     }
-                    
-                    arbiter.release();
-                    System.out.println("Filozof " + id + " zwraca pozwolenie arbitrowi");
+                } else if (urgentWaiting.get(left) > 0 || urgentWaiting.get(right) > 0) {
+                    TimeUnit.NANOSECONDS.sleep(SLICE);
+                } else if (Fork.tryAcquireBoth(id, leftFork, rightFork,
+                        Math.min(deadline, System.nanoTime() + SLICE))) {
+                    break;
                 }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                long now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    missed++;
+                    misses[priority].increment();
+                    EventLog.record(id, EventType.DEADLINE_MISS);
+                    deadline = now + deadlineNanos;
+                }
+            }
+        } finally {
+            if (priority == URGENT) {
+                urgentWaiting.decrementAndGet(left);
+                urgentWaiting.decrementAndGet(right);
             }
         }
+        long wait = System.nanoTime() - start;
+        synchronized (waits[priority]) {
+            waits[priority].record(wait);
+        }
+        return missed;
     }
     
-    public static void run() throws InterruptedException {
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        Semaphore arbiter = new Semaphore(n - 1); // Maksymalnie n-1 filozofów
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
-        }
-        
-        for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6), arbiter);
-            philosophers[i].start();
-        }
-        
-        for (Philosopher p : philosophers) {
-            p.join();
+    @Override
+    public void release(int id, Fork leftFork, Fork rightFork) {
+        EventLog.record(id, EventType.PUT_FORK, rightFork.getId());
+        rightFork.release();
+        EventLog.record(id, EventType.PUT_FORK, leftFork.getId());
+        leftFork.release();
+    }
+    
+    String report() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "Termin %.1f ms, pilny co %d. filozof", deadlineNanos / 1e6, urgentEvery));
+        for (int c = 0; c < CLASSES.length; c++) {
+            synchronized (waits[c]) {
+                report.append(String.format(Locale.ROOT,
+                        "%n  %-8s posiłki %d, czekanie p50 %.1f ms, p99 %.1f ms, maks. %.1f ms, chybione terminy %d",
+                        CLASSES[c], waits[c].getTotal(), waits[c].percentile(50) / 1e6,
+                        waits[c].percentile(99) / 1e6, waits[c].getMax() / 1e6, misses[c].sum()));
+            }
         }
+        return report.toString();
     }
 }
 
-//6: Z JADALNIĄ
-class DiningRoomSolution {
-    static class Fork {
-        private final int id;
-        
-        public Fork(int id) {
-            this.id = id;
-        }
-        
-        public int getId() {
-            return id;
+// Main
+class Main {
+    static final String[] SOLUTIONS = {
+        "Naiwne",
+        "Z możliwością zagłodzenia",
+        "Asymetryczne",
+        "Stochastyczne",
+        "Z arbitrem",
+        "Z jadalnią",
+        "Stochastyczne, mapa bitowa",
+        "Stochastyczne, mapa wyrównana",
+        "Sprawiedliwy kelner",
+        "Z arbitrem paskowym",
+        "Lepkie widelce",
+        "Serwery widelców (wątki wirtualne)",
+        "Serwery widelców (aktorzy na puli)",
+        "Z terminem i priorytetami",
+    };
+    // Liczba filozofów w segmencie StripedArbiterSolution
+    static final int ARBITER_SEGMENT = 64;
+    // DeadlineSolution: termin czekania na widelce i co który filozof jest pilny (-Ddeadline=MS, -Durgent=K)
+    static final long DEADLINE_NANOS = Long.getLong("deadline", 250) * 1_000_000;
+    static final int URGENT_EVERY = Integer.getInteger("urgent", 4);
+    
+    static ForkAcquisitionStrategy strategy(int choice, int n) {
+        return strategy(choice, n, Backoff.sleep(10));
+    }
+    
+    // backoff dotyczy tylko rozwiązań ponawiających tryAcquire (RetryingSolution)
+    static ForkAcquisitionStrategy strategy(int choice, int n, Backoff backoff) {
+        switch (choice) {
+            case 1: return new NaiveSolution();
+            case 2: return new StarvationSolution(backoff);
+            case 3: return new AsymmetricSolution();
+            case 4: return new StochasticSolution(backoff);
+            case 5: return new ArbiterSolution(n);
+            case 6: return new DiningRoomSolution(n);
+            case 7: return new BitmapStochasticSolution(ForkBitmap.packed(n), backoff);
+            case 8: return new BitmapStochasticSolution(ForkBitmap.padded(n), backoff);
+            case 9: return new FairWaiterSolution(n);
+            case 10: return new StripedArbiterSolution(n, ARBITER_SEGMENT);
+            case 11: return new StickyForkSolution(n);
+            case 12: return new ForkServerSolution(n, false);
+            case 13: return new ForkServerSolution(n, true);
+            case 14: return new DeadlineSolution(n, DEADLINE_NANOS, URGENT_EVERY);
+            default: throw new IllegalArgumentException("Nieznane rozwiązanie: " + choice);
         }
     }
     
-    static class Philosopher extends Thread {
-        private final int id;
-        private final Fork leftFork;
-        private final Fork rightFork;
-        private final int meals;
-        private final Semaphore diningRoom;
-        
-        public Philosopher(int id, Fork leftFork, Fork rightFork, int meals, Semaphore diningRoom) {
-            this.id = id;
-            this.leftFork = leftFork;
-            this.rightFork = rightFork;
-            this.meals = meals;
-            this.diningRoom = diningRoom;
+    // -Dcheck=MS sprawdza przebieg w SafetyChecker z progiem głodzenia MS milisekund
+    static SafetyChecker checker(int n, int meals) {
+        String threshold = System.getProperty("check");
+        return threshold != null ? new SafetyChecker(n, meals, Long.parseLong(threshold) * 1_000_000) : null;
+    }
+    
+    // -Dtrace=PLIK zapisuje zdarzenia do pliku dla java SafetyChecker -trace PLIK
+    static EventTrace.Writer trace(int n, int meals) {
+        String file = System.getProperty("trace");
+        return file != null ? new EventTrace.Writer(Path.of(file), n, meals) : null;
+    }
+    
+    // Wypisywanie (o ile nie -Dlog=false), kontrola i zapis do pliku; null, gdy nic nie słucha
+    static EventSink sink(SafetyChecker checker, EventTrace.Writer trace) {
+        List<EventSink> sinks = new ArrayList<>();
+        if (Boolean.parseBoolean(System.getProperty("log", "true"))) {
+            sinks.add(new EventLog.PrintSink(System.out));
         }
-        
-        private void think() throws InterruptedException {
-            System.out.println("Filozof " + id + " myśli");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+        if (checker != null) {
+            sinks.add(checker);
         }
-        
-        private void eat() throws InterruptedException {
-            System.out.println("Filozof " + id + " je");
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+        if (trace != null) {
+            sinks.add(trace);
         }
-        
-        @Override
-        public void run() {
-            try {
-                for (int i = 0; i < meals; i++) {
-                    think();
-                    
-                    if (diningRoom.tryAcquire()) {
-                        System.out.println("Filozof " + id + " wchodzi do jadalni");
-                        
-                        synchronized (leftFork) {
-                            System.out.println("Filozof " + id + " (w jadalni) podnosi lewy widelec " + leftFork.getId());
-                            
-                            synchronized (rightFork) {
-                                System.out.println("Filozof " + id + " (w jadalni) podnosi prawy widelec " + rightFork.getId());
-                                eat();
-                                System.out.println("Filozof " + id + " (w jadalni) odkłada widelce");
-                            }
-                        }
-                        
-                        diningRoom.release();
-                        System.out.println("Filozof " + id + " opuszcza jadalnię");
-                    } else {
-                        System.out.println("Filozof " + id + " je na korytarzu (odwrotna kolejność)");
-                        
-                        synchronized (rightFork) {
-                            System.out.println("Filozof " + id + " (korytarz) podnosi prawy widelec " + rightFork.getId());
-                            
-                            synchronized (leftFork) {
-                                System.out.println("Filozof " + id + " (korytarz) podnosi lewy widelec " + leftFork.getId());
-                                eat();
-                                System.out.println("Filozof " + id + " (korytarz) odkłada widelce");
-                            }
-                        }
-                    }
-                }
-                System.out.println("Filozof " + id + " zakończył jedzenie");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        return sinks.isEmpty() ? null : EventSink.tee(sinks.toArray(new EventSink[0]));
+    }
+    
+    static void simulate(int choice, int n, int meals, long seed) throws IOException {
+        SafetyChecker checker = checker(n, meals);
+        EventTrace.Writer trace = trace(n, meals);
+        EventSink sink = sink(checker, trace);
+        Simulation simulation = new Simulation(choice, n, meals, seed, 10_000_000, 1_000_000, sink);
+        long start = System.nanoTime();
+        WaitStats stats = simulation.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format(Locale.ROOT,
+                "Symulacja (ziarno %d): %d posiłków w %.1f s czasu wirtualnego, %.3f s rzeczywistego (%.0f posiłków/s)",
+                seed, simulation.totalMeals(), simulation.virtualNanos() / 1e9, seconds,
+                simulation.totalMeals() / seconds));
+        if (simulation.deadlocked()) {
+            System.out.println(String.format(Locale.ROOT, "ZAKLESZCZENIE po %.3f s czasu wirtualnego, czekają filozofowie %s",
+                    simulation.virtualNanos() / 1e9, Arrays.toString(simulation.stuck())));
+        }
+        if (sink != null) {
+            sink.flush();
+        }
+        if (trace != null) {
+            trace.close();
+        }
+        stats.print(System.out);
+        if (checker != null) {
+            System.out.println(checker.report());
         }
     }
     
-    public static void run() throws InterruptedException {
-        int n = 5;
-        Fork[] forks = new Fork[n];
-        Philosopher[] philosophers = new Philosopher[n];
-        Semaphore diningRoom = new Semaphore(n - 1);
-        
-        for (int i = 0; i < n; i++) {
-            forks[i] = new Fork(i);
+    public static void main(String[] args) throws Exception {
+        System.out.println("Wybierz rozwiązanie (1-" + SOLUTIONS.length + "):");
+        for (int i = 0; i < SOLUTIONS.length; i++) {
+            System.out.println((i + 1) + ". " + SOLUTIONS[i]);
+        }
+        
+        // java Main [rozwiązanie] [liczba filozofów] [posiłki] [platform|virtual|pool:K]
+        int choice = args.length > 0 ? Integer.parseInt(args[0]) : 6;// WYBÓR ROZWIĄZANIA
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int meals = args.length > 2 ? Integer.parseInt(args[2]) : (int) Math.pow(10, 6);
+        String mode = args.length > 3 ? args[3] : "platform";
+        Backoff backoff = Backoff.parse(System.getProperty("backoff", "sleep")); // -Dbackoff=sleep|spin|exp|park
+        // -Dthink=... i -Deat=... - obciążenie z Workload.parse, np. -Deat=spin:1000000; domyślnie sleep:100-300
+        Workload thinking = Workload.parse(System.getProperty("think", "sleep:100-300"));
+        Workload eating = Workload.parse(System.getProperty("eat", "sleep:100-300"));
+        
+        if (choice < 1 || choice > SOLUTIONS.length) {
+            System.out.println("Wybierz rozwiązanie (1-" + SOLUTIONS.length + "):");
+            return;
+        }
+        
+        // -Dsim=ZIARNO - symulacja na wirtualnym zegarze zamiast wątków, powtarzalna dla danego ziarna
+        String seed = System.getProperty("sim");
+        if (seed != null) {
+            simulate(choice, n, meals, Long.parseLong(seed));
+            return;
+        }
+        
+        // -Dlog=false wyłącza wypisywanie zdarzeń; rejestrowanie zostaje, gdy są -Dcheck albo -Dtrace,
+        // i wtedy jest bez strat - pełny bufor wstrzymuje filozofa zamiast gubić zdarzenie
+        SafetyChecker checker = checker(n, meals);
+        EventTrace.Writer trace = trace(n, meals);
+        EventSink sink = sink(checker, trace);
+        EventLog log = sink != null
+                ? EventLog.start(n, sink, checker != null || trace != null)
+                : null;
+        // -Dmetrics=S rejestruje metryki w JMX i wypisuje ich zrzut co S sekund (0 - tylko JMX)
+        String metricsPeriod = System.getProperty("metrics");
+        TableMetrics metrics = null;
+        if (metricsPeriod != null) {
+            metrics = new TableMetrics(n);
+            metrics.register(SOLUTIONS[choice - 1]);
+            if (Long.parseLong(metricsPeriod) > 0) {
+                metrics.dumpEvery(Long.parseLong(metricsPeriod), System.out);
+            }
         }
         
-        for (int i = 0; i < n; i++) {
-            Fork leftFork = forks[i];
-            Fork rightFork = forks[(i + 1) % n];
-            philosophers[i] = new Philosopher(i, leftFork, rightFork, (int) Math.pow(10, 6), diningRoom);
-            philosophers[i].start();
+        // -Dwatchdog=MS co MS milisekund szuka zakleszczeń i wywłaszcza ofiarę
+        String watchdogInterval = System.getProperty("watchdog");
+        DeadlockWatchdog watchdog = null;
+        if (watchdogInterval != null) {
+            if (mode.equals("virtual")) {
+                System.out.println("Strażnik zakleszczeń nie widzi blokad wątków wirtualnych");
+            }
+            watchdog = DeadlockWatchdog.start(Long.parseLong(watchdogInterval));
+        }
+        
+        ForkAcquisitionStrategy strategy = strategy(choice, n, backoff);
+        // -Droom=MS - rozwiązanie z jadalnią co MS milisekund dostraja jej pojemność
+        String roomPeriod = System.getProperty("room");
+        DiningRoomSolution.Controller controller = roomPeriod != null && strategy instanceof DiningRoomSolution
+                ? new DiningRoomSolution.Controller((DiningRoomSolution) strategy, Long.parseLong(roomPeriod))
+                : null;
+        
+        WaitStats stats;
+        try {
+            stats = Table.run(strategy, n, meals, Table.executor(mode), metrics, thinking, eating);
+        } finally {
+            if (strategy instanceof AutoCloseable) {
+                ((AutoCloseable) strategy).close();
+            }
+            if (controller != null) {
+                controller.close();
+            }
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            if (metrics != null) {
+                metrics.close();
+            }
+            if (log != null) {
+                long dropped = log.stop();
+                if (dropped > 0) {
+                    System.out.println("Zgubione zdarzenia (pełny bufor): " + dropped);
+                }
+                if (checker != null) {
+                    checker.eventsLost(dropped);
+                }
+            }
+            if (trace != null) {
+                trace.close();
+            }
         }
-        
-        for (Philosopher p : philosophers) {
-            p.join();
+        stats.print(System.out);
+        if (watchdog != null) {
+            System.out.println(watchdog.report());
+        }
+        if (controller != null) {
+            System.out.println(controller.report());
+        }
+        if (strategy instanceof DeadlineSolution) {
+            System.out.println(((DeadlineSolution) strategy).report());
+        }
+        if (checker != null) {
+            System.out.println(checker.report());
+        }
+        if (metrics != null) {
+            System.out.println(metrics.snapshot());
         }
     }
 }
-// Main
-class Main {
-    public static void main(String[] args) throws InterruptedException {
-        System.out.println("Wybierz rozwiązanie (1-6):");
-        System.out.println("1. Naiwne");
-        System.out.println("2. Z możliwością zagłodzenia)");
-        System.out.println("3. Asymetryczne");
-        System.out.println("4. Stochastyczne");
-        System.out.println("5. Z arbitrem ");
-        System.out.println("6. Z jadalnią");
-        
-        int choice = 6;// WYBÓR ROZWIĄZANIA
-        
-        switch (choice) {
-            case 1:
-                NaiveSolution.run();
-                break;
-            case 2:
-                StarvationSolution.run();
-                break;
-            case 3:
-                AsymmetricSolution.run();
-                break;
-            case 4:
-                StochasticSolution.run();
-                break;
-            case 5:
-                ArbiterSolution.run();
-                break;
-            case 6:
-                DiningRoomSolution.run();
-                break;
-            default:
-                System.out.println("Wybierz rozwiązanie (1-6):");
-        }
-    }
-}
\ No newline at end of file
@@ -0,0 +1,195 @@
+import java.util.Locale;
+
+// Duży stół podzielony na K ciągłych segmentów; każdy segment obsługuje jeden wątek, który
+// po kolei karmi swoich filozofów. W segmencie je naraz co najwyżej jeden filozof, więc widelce
+// wewnątrz segmentu nie potrzebują żadnej synchronizacji - wspólne są tylko widelce na granicach
+// (pierwszy widelec każdego segmentu), podnoszone CAS-em w ForkBitmap.padded, każdy na osobnej linii.
+// Filozof, który nie dostał widelca granicznego, zostaje głodny, a wątek przechodzi do następnego,
+// więc nikt nie czeka na sąsiedni segment i nie ma zakleszczenia.
+// Java nie przypina wątków do rdzeni - to, że segment ma swój rdzeń, zależy od planisty systemu.
+//
+// Benchmark skalowania: dla każdego K przepustowość podzielonego stołu i, dla porównania,
+// zwykłego Benchmark (rozwiązanie -s, te same obciążenia, K wątków na wspólnym pierścieniu).
+//
+//   java PartitionedTable -n 1024 -k 1,2,4,8 -think spin:20000 -eat spin:20000
+//   -k       liczby segmentów (domyślnie potęgi dwójki do liczby rdzeni)
+//   -s       rozwiązanie do porównania, 0 - bez porównania
+//   -think, -eat  obciążenia z Workload.parse; dla skalowania na procesorze spin albo touch
+//
+// przyspieszenie i sprawność liczone względem pierwszego K z listy (domyślnie 1);
+// przegrane to nieudane próby podniesienia widelca granicznego na jeden posiłek.
+class PartitionedTable {
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    
+    private final int n;
+    private final int segments;
+    private final ForkBitmap boundary;
+    private final long[] meals;
+    private final long[] lost;
+    private volatile int phase = WARMUP;
+    
+    PartitionedTable(int n, int segments) {
+        if (segments < 1 || segments > n) {
+            throw new IllegalArgumentException("Liczba segmentów musi być od 1 do " + n);
+        }
+        this.n = n;
+        this.segments = segments;
+        this.boundary = ForkBitmap.padded(segments);
+        this.meals = new long[n];
+        this.lost = new long[segments];
+    }
+    
+    private int start(int segment) {
+        return (int) ((long) segment * n / segments);
+    }
+    
+    // Wątek segmentu; meals[p] zapisuje tylko on, odczyt po jego zakończeniu
+    private void run(int segment, Workload thinking, Workload eating) {
+        int first = start(segment);
+        int end = start(segment + 1);
+        int next = (segment + 1) % segments;
+        // z jednym segmentem cały pierścień jest wewnętrzny
+        boolean shared = segments > 1;
+        boolean[] hungry = new boolean[end - first];
+        long failures = 0;
+        try {
+            int current;
+            while ((current = phase) != STOP) {
+                for (int p = first; p < end; p++) {
+                    if (!hungry[p - first]) {
+                        thinking.run();
+                        hungry[p - first] = true;
+                    }
+                    // lewy widelec p jest graniczny dla pierwszego filozofa, prawy - dla ostatniego
+                    boolean left = shared && p == first;
+                    boolean right = shared && p == end - 1;
+                    if (left && right ? !boundary.tryAcquireBoth(segment, next)
+                            : left ? !boundary.tryAcquire(segment)
+                            : right && !boundary.tryAcquire(next)) {
+                        if (current == MEASURE) {
+                            failures++;
+                        }
+                        continue;
+                    }
+                    try {
+                        eating.run();
+                    } finally {
+                        if (left && right) {
+                            boundary.releaseBoth(segment, next);
+                        } else if (left) {
+                            boundary.release(segment);
+                        } else if (right) {
+                            boundary.release(next);
+                        }
+                    }
+                    hungry[p - first] = false;
+                    if (current == MEASURE) {
+                        meals[p]++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lost[segment] = failures;
+    }
+    
+    static Benchmark.Result measure(int n, int segments, String think, String eat, long warmupMillis,
+                                    long measureMillis) throws InterruptedException {
+        PartitionedTable table = new PartitionedTable(n, segments);
+        Thread[] workers = new Thread[segments];
+        for (int s = 0; s < segments; s++) {
+            int segment = s;
+            Workload thinking = Workload.parse(think);
+            Workload eating = Workload.parse(eat);
+            workers[s] = Thread.ofPlatform().daemon(true).name("segment-" + s)
+                    .start(() -> table.run(segment, thinking, eating));
+        }
+        
+        Thread.sleep(warmupMillis);
+        table.phase = MEASURE;
+        long start = System.nanoTime();
+        long cpuStart = Benchmark.processCpuNanos();
+        Thread.sleep(measureMillis);
+        table.phase = STOP;
+        long elapsed = System.nanoTime() - start;
+        long cpu = Benchmark.processCpuNanos() - cpuStart;
+        for (Thread w : workers) {
+            w.join();
+        }
+        
+        Benchmark.Result r = new Benchmark.Result();
+        r.strategy = "Podzielony stół";
+        r.mode = "platform";
+        r.n = n;
+        r.threads = segments;
+        r.think = think;
+        r.eat = eat;
+        long total = Benchmark.total(table.meals);
+        r.mealsPerSecond = total * 1e9 / elapsed;
+        r.jain = Benchmark.jainIndex(table.meals);
+        r.minMaxRatio = Benchmark.minMaxRatio(table.meals);
+        r.cpu = (double) cpu / (elapsed * Runtime.getRuntime().availableProcessors());
+        r.retriesPerMeal = total == 0 ? 0 : (double) Benchmark.total(table.lost) / total;
+        return r;
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int n = 1024;
+        int[] segmentCounts = null;
+        int choice = 3;
+        String think = "spin:20000";
+        String eat = "spin:20000";
+        long warmupMillis = 1000;
+        long measureMillis = 3000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-n": n = Integer.parseInt(args[i + 1]); break;
+                case "-k": segmentCounts = Benchmark.parseList(args[i + 1]); break;
+                case "-s": choice = Integer.parseInt(args[i + 1]); break;
+                case "-think": think = args[i + 1]; break;
+                case "-eat": eat = args[i + 1]; break;
+                case "-warmup": warmupMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                case "-time": measureMillis = Long.parseLong(args[i + 1]) * 1000; break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        if (segmentCounts == null) {
+            int count = 1;
+            while (1 << count <= cores) {
+                count++;
+            }
+            // co najmniej 1, 2 i 4, żeby było widać koszt granic także na małej maszynie
+            count = Math.max(count, 3);
+            segmentCounts = new int[count];
+            for (int i = 0; i < count; i++) {
+                segmentCounts[i] = 1 << i;
+            }
+        }
+        
+        System.out.println(String.format(Locale.ROOT, "%d filozofów, think %s, eat %s, rdzeni: %d", n, think, eat, cores));
+        System.out.println(String.format(Locale.ROOT, "%6s %14s %14s %11s %6s %10s %5s %14s %8s",
+                "K", "posiłki/s", "przyspieszenie", "sprawność", "Jain", "przegrane", "CPU",
+                choice > 0 ? "wspólny[p/s]" : "", choice > 0 ? "podział/wspólny" : ""));
+        double base = 0;
+        for (int k : segmentCounts) {
+            Benchmark.Result r = measure(n, Math.min(k, n), think, eat, warmupMillis, measureMillis);
+            if (base == 0) {
+                base = r.mealsPerSecond / r.threads;
+            }
+            double speedup = r.mealsPerSecond / base;
+            String shared = "";
+            if (choice > 0) {
+                Benchmark.Result s = Benchmark.measure(choice, "platform", "sleep", n, r.threads, think, eat,
+                        warmupMillis, measureMillis);
+                shared = String.format(Locale.ROOT, "%14.0f %8.2f", s.mealsPerSecond, r.mealsPerSecond / s.mealsPerSecond);
+            }
+            System.out.println(String.format(Locale.ROOT, "%6d %14.0f %14.2f %10.0f%% %6.3f %10.3f %4.0f%% %s",
+                    r.threads, r.mealsPerSecond, speedup, speedup / r.threads * 100, r.jain, r.retriesPerMeal,
+                    r.cpu * 100, shared));
+        }
+    }
+}
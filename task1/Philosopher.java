@@ -0,0 +1,133 @@
+class Philosopher implements Runnable {
+    private final int id;
+    private final Fork leftFork;
+    private final Fork rightFork;
+    private final int meals;
+    private final ForkAcquisitionStrategy strategy;
+    private final PhilosopherStats stats; // null - bez metryk
+    private final Workload thinking;
+    private final Workload eating;
+    // Zapisuje tylko wątek tego filozofa, odczyt po jego zakończeniu
+    private long maxWaitNanos;
+    private long maxLostStreak;
+    private RuntimeException failure; // błąd, który przerwał ucztę tego filozofa
+    
+    public Philosopher(int id, Fork leftFork, Fork rightFork, int meals, ForkAcquisitionStrategy strategy,
+                       PhilosopherStats stats, Workload thinking, Workload eating) {
+        this.id = id;
+        this.leftFork = leftFork;
+        this.rightFork = rightFork;
+        this.meals = meals;
+        this.strategy = strategy;
+        this.stats = stats;
+        this.thinking = thinking;
+        this.eating = eating;
+    }
+    
+    private void think() throws InterruptedException {
+        EventLog.record(id, EventType.THINK);
+        TimelineEvents.Think event = TimelineEvents.ENABLED ? new TimelineEvents.Think() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        thinking.run();
+        if (event != null && event.shouldCommit()) {
+            event.philosopher = id;
+            event.commit();
+        }
+        if (stats != null) {
+            stats.thinkNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    private void eat() throws InterruptedException {
+        EventLog.record(id, EventType.EAT);
+        TimelineEvents.Eat event = TimelineEvents.ENABLED ? new TimelineEvents.Eat() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        eating.run();
+        if (event != null && event.shouldCommit()) {
+            event.philosopher = id;
+            event.leftFork = leftFork.getId();
+            event.rightFork = rightFork.getId();
+            event.commit();
+        }
+        if (stats != null) {
+            stats.eatNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    // Czekanie na widelce; gdy DeadlockWatchdog przerwie je, żeby rozbić zakleszczenie,
+    // strategia odłożyła już trzymane widelce i filozof próbuje jeszcze raz
+    private int acquire(DeadlockWatchdog.Waiter waiter) throws InterruptedException {
+        if (waiter == null) {
+            return strategy.acquire(id, leftFork, rightFork);
+        }
+        while (true) {
+            waiter.waitingSince = System.nanoTime();
+            try {
+                return strategy.acquire(id, leftFork, rightFork);
+            } catch (InterruptedException e) {
+                if (!waiter.consumePreempted()) {
+                    throw e;
+                }
+                EventLog.record(id, EventType.PREEMPTED);
+            }
+        }
+    }
+    
+    @Override
+    public void run() {
+        DeadlockWatchdog.Waiter waiter = DeadlockWatchdog.register(id);
+        try {
+            for (int i = 0; i < meals; i++) {
+                think();
+                EventLog.record(id, EventType.HUNGRY);
+                TimelineEvents.ForkWait event = TimelineEvents.ENABLED ? new TimelineEvents.ForkWait() : null;
+                if (event != null) {
+                    event.begin();
+                }
+                long waitStart = System.nanoTime();
+                int lost = acquire(waiter);
+                long wait = System.nanoTime() - waitStart;
+                if (event != null && event.shouldCommit()) {
+                    event.philosopher = id;
+                    event.leftFork = leftFork.getId();
+                    event.rightFork = rightFork.getId();
+                    event.lost = lost;
+                    event.commit();
+                }
+                maxWaitNanos = Math.max(maxWaitNanos, wait);
+                maxLostStreak = Math.max(maxLostStreak, lost);
+                if (stats != null) {
+                    stats.waitNanos.add(wait);
+                    stats.meals.increment();
+                }
+                try {
+                    eat();
+                } finally {
+                    strategy.release(id, leftFork, rightFork);
+                }
+            }
+            EventLog.record(id, EventType.DONE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            DeadlockWatchdog.unregister(waiter);
+        }
+    }
+    
+    RuntimeException getFailure() {
+        return failure;
+    }
+    
+    void collect(WaitStats stats) {
+        stats.maxWaitNanos[id] = maxWaitNanos;
+        stats.maxLostStreak[id] = maxLostStreak;
+    }
+}
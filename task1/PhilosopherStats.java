@@ -0,0 +1,9 @@
+import java.util.concurrent.atomic.LongAdder;
+
+// Liczniki jednego filozofa; pisze jego wątek, czyta JMX i okresowy zrzut
+class PhilosopherStats {
+    final LongAdder meals = new LongAdder();
+    final LongAdder waitNanos = new LongAdder();
+    final LongAdder thinkNanos = new LongAdder();
+    final LongAdder eatNanos = new LongAdder();
+}
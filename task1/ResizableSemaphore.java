@@ -0,0 +1,29 @@
+import java.util.concurrent.Semaphore;
+
+// Semafor, którego łączną liczbę pozwoleń można zmieniać w trakcie działania.
+// Zmniejszenie nie odbiera pozwoleń już wydanych - dostępnych może chwilowo być mniej niż zero,
+// aż posiadacze je zwrócą.
+class ResizableSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+    
+    private int permits;
+    
+    ResizableSemaphore(int permits) {
+        super(permits);
+        this.permits = permits;
+    }
+    
+    synchronized int getPermits() {
+        return permits;
+    }
+    
+    synchronized void setPermits(int newPermits) {
+        int delta = newPermits - permits;
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+        permits = newPermits;
+    }
+}
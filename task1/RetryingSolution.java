@@ -0,0 +1,36 @@
+import java.util.concurrent.atomic.LongAdder;
+
+// Wspólna część rozwiązań ponawiających tryAcquire: przerwa między próbami (Backoff)
+// i liczniki ponowień, z których liczymy średnią liczbę ponowień na posiłek
+abstract class RetryingSolution implements ForkAcquisitionStrategy {
+    private final Backoff backoff;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder meals = new LongAdder();
+    
+    protected RetryingSolution(Backoff backoff) {
+        this.backoff = backoff;
+    }
+    
+    // Po nieudanej próbie numer attempt (od 1)
+    protected void retry(int attempt) throws InterruptedException {
+        backoff.pause(attempt);
+    }
+    
+    // Po zdobyciu obu widelców; failedAttempts - liczba nieudanych prób w tym posiłku
+    protected void acquired(int failedAttempts) {
+        meals.increment();
+        if (failedAttempts > 0) {
+            retries.add(failedAttempts);
+        }
+    }
+    
+    public double retriesPerMeal() {
+        long m = meals.sum();
+        return m == 0 ? 0 : (double) retries.sum() / m;
+    }
+    
+    public void resetStats() {
+        retries.reset();
+        meals.reset();
+    }
+}
@@ -0,0 +1,205 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Sprawdza przebieg uczty na strumieniu zdarzeń, przyrostowo, po jednym zdarzeniu:
+// - widelec ma naraz najwyżej jednego właściciela i odkłada go ten, kto go podniósł,
+// - filozof je z oboma swoimi widelcami, a sąsiedzi nie jedzą w tym samym czasie,
+// - czekanie od HUNGRY do EAT nie przekracza progu głodzenia,
+// - każdy filozof zjadł swoje posiłki, oraz indeks Jaina z liczby posiłków.
+// Stan to kilka tablic po n elementów, bez alokacji na zdarzenie. W Main działa jako odbiorca
+// EventLog, czyli w wątku opróżniającym bufory, a nie w wątkach filozofów; offline czyta plik z EventTrace.
+//
+//   java SafetyChecker -trace uczta.bin [-starvation MS]
+//   java -Dlog=false -Dcheck=MS Main 3 5 100 - to samo w trakcie uczty
+//
+// Z -Dcheck EventLog działa bez strat. Gdyby jednak zgubił zdarzenia (eventsLost > 0), brakujące
+// podniesienia i odłożenia wyglądałyby jak naruszenia, więc report() podaje wtedy tylko wynik nierozstrzygnięty.
+class SafetyChecker implements EventSink {
+    private static final int FREE = -1;
+    private static final int MAX_DESCRIBED = 10;
+    
+    private final int n;
+    private final int meals;
+    private final long starvationNanos;
+    private final int[] holder;
+    private final boolean[] eating;
+    private final long[] hungrySince;
+    private final long[] eaten;
+    private final boolean[] done;
+    private final long[] maxWait;
+    private final List<String> violations = new ArrayList<>();
+    
+    private long events;
+    private long lastTime;
+    private long exclusionViolations;
+    private long neighbourViolations;
+    private long protocolViolations;
+    private long starvationWindows;
+    private long lost;
+    
+    SafetyChecker(int n, int meals, long starvationNanos) {
+        this.n = n;
+        this.meals = meals;
+        this.starvationNanos = starvationNanos;
+        this.holder = new int[n];
+        this.eating = new boolean[n];
+        this.hungrySince = new long[n];
+        this.eaten = new long[n];
+        this.done = new boolean[n];
+        this.maxWait = new long[n];
+        Arrays.fill(holder, FREE);
+        Arrays.fill(hungrySince, -1);
+    }
+    
+    @Override
+    public void accept(int philosopher, EventType type, int fork, long nanoTime) {
+        events++;
+        lastTime = nanoTime;
+        switch (type) {
+            case TAKE_FORK:
+                if (holder[fork] != FREE) {
+                    exclusionViolations++;
+                    describe(nanoTime, "filozof " + philosopher + " podnosi widelec " + fork
+                            + ", który trzyma filozof " + holder[fork]);
+                }
+                holder[fork] = philosopher;
+                break;
+            case PUT_FORK:
+                if (holder[fork] != philosopher) {
+                    exclusionViolations++;
+                    describe(nanoTime, "filozof " + philosopher + " odkłada widelec " + fork
+                            + (holder[fork] == FREE ? ", który leży na stole" : " filozofa " + holder[fork]));
+                }
+                holder[fork] = FREE;
+                eating[philosopher] = false;
+                break;
+            case HUNGRY:
+                hungrySince[philosopher] = nanoTime;
+                break;
+            case EAT:
+                eat(philosopher, nanoTime);
+                break;
+            case THINK:
+                eating[philosopher] = false;
+                break;
+            case DONE:
+                eating[philosopher] = false;
+                done[philosopher] = true;
+                if (eaten[philosopher] != meals) {
+                    protocolViolations++;
+                    describe(nanoTime, "filozof " + philosopher + " kończy po " + eaten[philosopher]
+                            + " posiłkach zamiast " + meals);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void eat(int p, long nanoTime) {
+        int left = p;
+        int right = (p + 1) % n;
+        if (holder[left] != p || holder[right] != p) {
+            protocolViolations++;
+            describe(nanoTime, "filozof " + p + " je bez swoich widelców " + left + " i " + right);
+        }
+        int before = (p + n - 1) % n;
+        if (n > 1 && (eating[before] || eating[right])) {
+            neighbourViolations++;
+            describe(nanoTime, "filozof " + p + " je razem z sąsiadem " + (eating[before] ? before : right));
+        }
+        eating[p] = true;
+        eaten[p]++;
+        if (hungrySince[p] >= 0) {
+            long wait = nanoTime - hungrySince[p];
+            maxWait[p] = Math.max(maxWait[p], wait);
+            if (wait > starvationNanos) {
+                starvationWindows++;
+            }
+            hungrySince[p] = -1;
+        }
+    }
+    
+    private void describe(long nanoTime, String text) {
+        if (violations.size() < MAX_DESCRIBED) {
+            violations.add(String.format(Locale.ROOT, "  [%d] %s", nanoTime, text));
+        }
+    }
+    
+    // Liczba zdarzeń zgubionych przed kontrolą, z EventLog.stop()
+    void eventsLost(long count) {
+        lost += count;
+    }
+    
+    String report() {
+        if (lost > 0) {
+            return String.format(Locale.ROOT,
+                    "Kontrola NIEROZSTRZYGNIĘTA: zgubiono %d zdarzeń, sprawdzono %d - naruszeń i głodzenia nie da się ocenić",
+                    lost, events);
+        }
+        // wciąż głodni na końcu strumienia czekają co najmniej od HUNGRY do ostatniego zdarzenia
+        long starving = 0;
+        long worst = 0;
+        int worstPhilosopher = -1;
+        int unfinished = 0;
+        for (int p = 0; p < n; p++) {
+            long wait = maxWait[p];
+            if (hungrySince[p] >= 0) {
+                wait = Math.max(wait, lastTime - hungrySince[p]);
+                if (lastTime - hungrySince[p] > starvationNanos) {
+                    starving++;
+                }
+            }
+            if (wait > worst) {
+                worst = wait;
+                worstPhilosopher = p;
+            }
+            if (!done[p]) {
+                unfinished++;
+            }
+        }
+        StringBuilder result = new StringBuilder(String.format(Locale.ROOT,
+                "Kontrola %d zdarzeń: naruszenia wyłączności widelców %d, jedzący sąsiedzi %d, inne naruszenia %d%n",
+                events, exclusionViolations, neighbourViolations, protocolViolations));
+        result.append(String.format(Locale.ROOT,
+                "Czekanie dłuższe niż %.1f ms: %d razy, głodni dłużej na końcu: %d, najdłużej %.3f ms (filozof %d)%n",
+                starvationNanos / 1e6, starvationWindows, starving, worst / 1e6, worstPhilosopher));
+        result.append(String.format(Locale.ROOT,
+                "Posiłki: min %d, maks %d, indeks Jaina %.4f, niezakończonych filozofów %d z %d",
+                Arrays.stream(eaten).min().orElse(0), Arrays.stream(eaten).max().orElse(0),
+                Benchmark.jainIndex(eaten), unfinished, n));
+        for (String violation : violations) {
+            result.append(System.lineSeparator()).append(violation);
+        }
+        return result.toString();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        String trace = null;
+        long starvationMillis = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-trace": trace = args[i + 1]; break;
+                case "-starvation": starvationMillis = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        if (trace == null) {
+            System.out.println("Użycie: java SafetyChecker -trace PLIK [-starvation MS]");
+            System.out.println("Plik zapisuje Main z -Dtrace=PLIK, także z -Dsim=ZIARNO");
+            return;
+        }
+        
+        EventTrace eventTrace = EventTrace.open(Path.of(trace));
+        SafetyChecker checker = new SafetyChecker(eventTrace.philosophers, eventTrace.meals, starvationMillis * 1_000_000);
+        long start = System.nanoTime();
+        long count = eventTrace.replay(checker);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(checker.report());
+        System.out.println(String.format(Locale.ROOT, "%d zdarzeń w %.3f s (%.1f mln zdarzeń/s, z czytaniem pliku)",
+                count, seconds, count / seconds / 1e6));
+    }
+}
@@ -0,0 +1,451 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Symulacja zdarzeń dyskretnych zamiast wątków i Thread.sleep: filozofowie przesuwają się po
+// wirtualnym zegarze, czasy myślenia i jedzenia losuje SplittableRandom z ziarna (osobny strumień
+// na filozofa). Jeden wątek, kolejka zdarzeń uporządkowana po (czas, numer zdarzenia), więc to samo
+// ziarno daje zawsze ten sam przeplot - można odtworzyć konkretny przypadek zagłodzenia czy zakleszczenia.
+// Każde rozwiązanie z Main.SOLUTIONS jest tu modelem swojego protokołu: widelec ma właściciela i co najwyżej
+// jednego czekającego sąsiada, tryAcquire z przerwą to zdarzenie ponowienia po backoffNanos.
+// Między pierwszym a drugim widelcem mija reachNanos - bez tego okna rozwiązanie naiwne nigdy by się nie zakleszczyło.
+class Simulation {
+    private static final int HUNGRY = 0;
+    private static final int FULL = 1;
+    private static final int RETRY = 2;
+    private static final int REACH = 3;
+    private static final int FREE = -1;
+    
+    private final int choice;
+    private final int n;
+    private final int meals;
+    private final long backoffNanos;
+    private final long reachNanos;
+    private final EventSink sink; // null - bez zdarzeń
+    private final SplittableRandom[] random;
+    
+    // Kolejka zdarzeń: kopiec po (time, seq); filozof ma naraz najwyżej jedno zaplanowane zdarzenie
+    private final long[] heapTime;
+    private final long[] heapSeq;
+    private final int[] heapEvent;
+    private int heapSize;
+    private long seq;
+    private long now;
+    private long processed;
+    
+    private final int[] forkOwner;
+    private final int[] forkWaiter;
+    private final int[] first;
+    private final int[] second;
+    private final int[] step; // ile widelców z planu (first, second) filozof już ma
+    private final long[] hungrySince;
+    private final int[] lost;
+    private final int[] eaten;
+    private final WaitStats stats;
+    private long totalMeals;
+    private long retries;
+    
+    // 5, 10: arbiter - pozwolenia segmentów, pozwolenia globalne i kolejki FIFO czekających na segment;
+    // zwykły arbiter to jeden segment na cały stół. Czekający bierze pozwolenie swojego segmentu
+    // albo zwolnione globalne - to dostaje najdłużej czekający z czół wszystkich kolejek
+    private final int segmentSize;
+    private final int[] segmentFree;
+    private int globalFree;
+    private final boolean[] usedGlobal;
+    private final int[] queueFirst;
+    private final int[] queueLast;
+    private final int[] queueNext;
+    // 6: jadalnia
+    private int roomFree;
+    private final boolean[] inRoom;
+    // 9: kelner
+    private final long[] ticket;
+    private final boolean[] eating;
+    private long nextTicket = 1;
+    
+    Simulation(int choice, int n, int meals, long seed, long backoffNanos, long reachNanos,
+               EventSink sink) {
+        if (choice < 1 || choice > Main.SOLUTIONS.length) {
+            throw new IllegalArgumentException("Nieznane rozwiązanie: " + choice);
+        }
+        this.choice = choice;
+        this.n = n;
+        this.meals = meals;
+        this.backoffNanos = backoffNanos;
+        this.reachNanos = reachNanos;
+        this.sink = sink;
+        this.random = new SplittableRandom[n];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < n; i++) {
+            random[i] = root.split();
+        }
+        heapTime = new long[n];
+        heapSeq = new long[n];
+        heapEvent = new int[n];
+        forkOwner = new int[n];
+        forkWaiter = new int[n];
+        Arrays.fill(forkOwner, FREE);
+        Arrays.fill(forkWaiter, FREE);
+        first = new int[n];
+        second = new int[n];
+        step = new int[n];
+        hungrySince = new long[n];
+        lost = new int[n];
+        eaten = new int[n];
+        stats = new WaitStats(n);
+        segmentSize = choice == 10 ? Main.ARBITER_SEGMENT : n;
+        int segments = (n + segmentSize - 1) / segmentSize;
+        segmentFree = new int[segments];
+        for (int i = 0; i < segments; i++) {
+            segmentFree[i] = Math.min(segmentSize, n - i * segmentSize) - 1;
+        }
+        globalFree = segments - 1;
+        usedGlobal = new boolean[n];
+        queueFirst = new int[segments];
+        queueLast = new int[segments];
+        queueNext = new int[n];
+        Arrays.fill(queueFirst, FREE);
+        roomFree = n - 1;
+        inRoom = new boolean[n];
+        ticket = new long[n];
+        eating = new boolean[n];
+    }
+    
+    // Przetwarza zdarzenia, aż wszyscy zjedzą albo kolejka się opróżni (zakleszczenie)
+    WaitStats run() {
+        for (int i = 0; i < n; i++) {
+            think(i);
+        }
+        while (heapSize > 0) {
+            int event = poll();
+            int p = event >>> 2;
+            switch (event & 3) {
+                case HUNGRY: hungry(p); break;
+                case FULL: full(p); break;
+                case RETRY: tryBoth(p); break;
+                case REACH: takeNext(p); break;
+                default: throw new IllegalStateException();
+            }
+        }
+        if (sink != null) {
+            sink.flush();
+        }
+        return stats;
+    }
+    
+    long virtualNanos() {
+        return now;
+    }
+    
+    long events() {
+        return processed;
+    }
+    
+    long totalMeals() {
+        return totalMeals;
+    }
+    
+    double retriesPerMeal() {
+        return totalMeals == 0 ? 0 : (double) retries / totalMeals;
+    }
+    
+    boolean deadlocked() {
+        return totalMeals < (long) n * meals;
+    }
+    
+    // Filozofowie, którzy nie skończyli (po zakleszczeniu - uczestnicy cyklu)
+    int[] stuck() {
+        return IntStream.range(0, n).filter(i -> eaten[i] < meals).toArray();
+    }
+    
+    private int left(int p) {
+        return p;
+    }
+    
+    private int right(int p) {
+        return (p + 1) % n;
+    }
+    
+    private void emit(int p, EventType type, int fork) {
+        if (sink != null) {
+            sink.accept(p, type, fork, now);
+        }
+    }
+    
+    private long duration(int p) {
+        return random[p].nextInt(100, 300) * 1_000_000L;
+    }
+    
+    private void think(int p) {
+        emit(p, EventType.THINK, -1);
+        schedule(now + duration(p), p, HUNGRY);
+    }
+    
+    private void hungry(int p) {
+        emit(p, EventType.HUNGRY, -1);
+        hungrySince[p] = now;
+        lost[p] = 0;
+        switch (choice) {
+            case 1:
+                take(p, left(p), right(p));
+                break;
+            case 2:
+                first[p] = left(p);
+                second[p] = right(p);
+                tryBoth(p);
+                break;
+            case 3: case 12: case 13:
+                if (p % 2 == 0) {
+                    take(p, right(p), left(p));
+                } else {
+                    take(p, left(p), right(p));
+                }
+                break;
+            case 4: case 7: case 8:
+                boolean leftFirst = random[p].nextBoolean();
+                first[p] = leftFirst ? left(p) : right(p);
+                second[p] = leftFirst ? right(p) : left(p);
+                emit(p, EventType.COIN, first[p]);
+                tryBoth(p);
+                break;
+            case 5: case 10:
+                int segment = p / segmentSize;
+                if (segmentFree[segment] > 0) {
+                    segmentFree[segment]--;
+                    usedGlobal[p] = false;
+                    grant(p);
+                } else if (globalFree > 0) {
+                    globalFree--;
+                    usedGlobal[p] = true;
+                    grant(p);
+                } else {
+                    queueNext[p] = FREE;
+                    if (queueFirst[segment] == FREE) {
+                        queueFirst[segment] = p;
+                    } else {
+                        queueNext[queueLast[segment]] = p;
+                    }
+                    queueLast[segment] = p;
+                }
+                break;
+            case 6:
+                if (roomFree > 0) {
+                    roomFree--;
+                    inRoom[p] = true;
+                    emit(p, EventType.ENTER_ROOM, -1);
+                    take(p, left(p), right(p));
+                } else {
+                    inRoom[p] = false;
+                    emit(p, EventType.CORRIDOR, -1);
+                    take(p, right(p), left(p));
+                }
+                break;
+            case 11: case 14:
+                // lepkie widelce kosztują mniej, a terminy i priorytety nie zmieniają kolejności,
+                // więc w czasie wirtualnym to po prostu kolejność numerów
+                take(p, Math.min(left(p), right(p)), Math.max(left(p), right(p)));
+                break;
+            case 9:
+                ticket[p] = nextTicket++;
+                serve(p);
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+    
+    private void grant(int p) {
+        emit(p, EventType.ARBITER_GRANT, -1);
+        take(p, left(p), right(p));
+    }
+    
+    // Blokujące podnoszenie w kolejności a, b
+    private void take(int p, int a, int b) {
+        first[p] = a;
+        second[p] = b;
+        step[p] = 0;
+        takeNext(p);
+    }
+    
+    private void takeNext(int p) {
+        while (step[p] < 2) {
+            int fork = step[p] == 0 ? first[p] : second[p];
+            if (forkOwner[fork] != FREE) {
+                forkWaiter[fork] = p;
+                return;
+            }
+            forkOwner[fork] = p;
+            emit(p, EventType.TAKE_FORK, fork);
+            if (++step[p] == 1 && reachNanos > 0) {
+                schedule(now + reachNanos, p, REACH);
+                return;
+            }
+        }
+        eat(p);
+    }
+    
+    // Jedna próba tryAcquire obu widelców; po porażce ponowienie za backoffNanos
+    private void tryBoth(int p) {
+        if (forkOwner[first[p]] == FREE && forkOwner[second[p]] == FREE) {
+            forkOwner[first[p]] = p;
+            forkOwner[second[p]] = p;
+            emit(p, EventType.TAKE_FORK, first[p]);
+            emit(p, EventType.TAKE_FORK, second[p]);
+            retries += lost[p];
+            eat(p);
+        } else {
+            lost[p]++;
+            schedule(now + backoffNanos, p, RETRY);
+        }
+    }
+    
+    private void eat(int p) {
+        long wait = now - hungrySince[p];
+        stats.maxWaitNanos[p] = Math.max(stats.maxWaitNanos[p], wait);
+        stats.maxLostStreak[p] = Math.max(stats.maxLostStreak[p], lost[p]);
+        emit(p, EventType.EAT, -1);
+        schedule(now + duration(p), p, FULL);
+    }
+    
+    private void full(int p) {
+        release(p, right(p));
+        release(p, left(p));
+        switch (choice) {
+            case 5: case 10:
+                emit(p, EventType.ARBITER_RETURN, -1);
+                int segment = p / segmentSize;
+                if (usedGlobal[p]) {
+                    int oldest = FREE;
+                    for (int s = 0; s < queueFirst.length; s++) {
+                        int head = queueFirst[s];
+                        if (head != FREE && (oldest == FREE || hungrySince[head] < hungrySince[oldest])) {
+                            oldest = head;
+                        }
+                    }
+                    if (oldest == FREE) {
+                        globalFree++;
+                    } else {
+                        int waiting = oldest / segmentSize;
+                        queueFirst[waiting] = queueNext[oldest];
+                        usedGlobal[oldest] = true;
+                        grant(oldest);
+                    }
+                } else if (queueFirst[segment] != FREE) {
+                    int next = queueFirst[segment];
+                    queueFirst[segment] = queueNext[next];
+                    usedGlobal[next] = false;
+                    grant(next);
+                } else {
+                    segmentFree[segment]++;
+                }
+                break;
+            case 6:
+                if (inRoom[p]) {
+                    emit(p, EventType.LEAVE_ROOM, -1);
+                    roomFree++;
+                }
+                break;
+            case 9:
+                eating[p] = false;
+                serve((p + n - 1) % n);
+                serve(right(p));
+                break;
+            default:
+                break;
+        }
+        totalMeals++;
+        if (++eaten[p] == meals) {
+            emit(p, EventType.DONE, -1);
+        } else {
+            think(p);
+        }
+    }
+    
+    // Odkłada widelec; czekający sąsiad dostaje go od razu
+    private void release(int p, int fork) {
+        emit(p, EventType.PUT_FORK, fork);
+        int waiter = forkWaiter[fork];
+        forkWaiter[fork] = FREE;
+        forkOwner[fork] = FREE;
+        if (waiter != FREE) {
+            forkOwner[fork] = waiter;
+            emit(waiter, EventType.TAKE_FORK, fork);
+            if (++step[waiter] == 1 && reachNanos > 0) {
+                schedule(now + reachNanos, waiter, REACH);
+            } else {
+                takeNext(waiter);
+            }
+        }
+    }
+    
+    // 9: kelner wpuszcza p, jeśli czeka, a żaden sąsiad nie je ani nie ma starszego biletu
+    private void serve(int p) {
+        if (ticket[p] == 0 || blocks((p + n - 1) % n, p) || blocks(right(p), p)) {
+            return;
+        }
+        ticket[p] = 0;
+        eating[p] = true;
+        // czekający sąsiedzi zostali wyprzedzeni
+        if (ticket[(p + n - 1) % n] != 0) {
+            lost[(p + n - 1) % n]++;
+        }
+        if (ticket[right(p)] != 0) {
+            lost[right(p)]++;
+        }
+        take(p, left(p), right(p));
+    }
+    
+    private boolean blocks(int neighbor, int p) {
+        return eating[neighbor] || (ticket[neighbor] != 0 && ticket[neighbor] < ticket[p]);
+    }
+    
+    private void schedule(long time, int p, int kind) {
+        int i = heapSize++;
+        long s = seq++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapTime[parent] < time || (heapTime[parent] == time && heapSeq[parent] < s)) {
+                break;
+            }
+            heapTime[i] = heapTime[parent];
+            heapSeq[i] = heapSeq[parent];
+            heapEvent[i] = heapEvent[parent];
+            i = parent;
+        }
+        heapTime[i] = time;
+        heapSeq[i] = s;
+        heapEvent[i] = (p << 2) | kind;
+    }
+    
+    private int poll() {
+        int event = heapEvent[0];
+        now = heapTime[0];
+        processed++;
+        int last = --heapSize;
+        long time = heapTime[last];
+        long s = heapSeq[last];
+        int e = heapEvent[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && (heapTime[child + 1] < heapTime[child]
+                    || (heapTime[child + 1] == heapTime[child] && heapSeq[child + 1] < heapSeq[child]))) {
+                child++;
+            }
+            if (time < heapTime[child] || (time == heapTime[child] && s < heapSeq[child])) {
+                break;
+            }
+            heapTime[i] = heapTime[child];
+            heapSeq[i] = heapSeq[child];
+            heapEvent[i] = heapEvent[child];
+            i = child;
+        }
+        heapTime[i] = time;
+        heapSeq[i] = s;
+        heapEvent[i] = e;
+        return event;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Widelec, który po posiłku zostaje u ostatniego użytkownika (jak "brudny widelec" Chandy'ego-Misry).
+// Używają go tylko dwaj sąsiedzi; każdy pisze wyłącznie własne flagi busy i requested.
+// Właściciel, o którego widelec nikt nie prosi, podnosi go i odkłada samymi zapisami i odczytami
+// pól volatile - bez CAS i bez blokady. Sąsiad, który chce widelca, zgłasza prośbę i czeka
+// pod blokadą; właściciel po posiłku (albo gdy zobaczy prośbę przed jedzeniem) oddaje widelec.
+class StickyFork {
+    private static final int NONE = -1;
+    
+    private final int id;
+    private final int[] users;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private volatile int owner = NONE;
+    // Indeks to strona użytkownika: 0 - filozof id (widelec jest jego lewym), 1 - filozof id - 1
+    private volatile boolean busy0;
+    private volatile boolean busy1;
+    private volatile boolean requested0;
+    private volatile boolean requested1;
+    
+    StickyFork(int id, int n) {
+        this.id = id;
+        this.users = new int[] {id, (id + n - 1) % n};
+    }
+    
+    int getId() {
+        return id;
+    }
+    
+    private int side(int philosopher) {
+        return philosopher == users[0] ? 0 : 1;
+    }
+    
+    private boolean busy(int side) {
+        return side == 0 ? busy0 : busy1;
+    }
+    
+    private void setBusy(int side, boolean value) {
+        if (side == 0) {
+            busy0 = value;
+        } else {
+            busy1 = value;
+        }
+    }
+    
+    private boolean requested(int side) {
+        return side == 0 ? requested0 : requested1;
+    }
+    
+    private void setRequested(int side, boolean value) {
+        if (side == 0) {
+            requested0 = value;
+        } else {
+            requested1 = value;
+        }
+    }
+    
+    void acquire(int philosopher) throws InterruptedException {
+        int me = side(philosopher);
+        int other = 1 - me;
+        if (owner == philosopher) {
+            // Dekker: najpierw zajmujemy, potem sprawdzamy prośbę; sąsiad robi to w odwrotnej kolejności
+            setBusy(me, true);
+            if (!requested(other) && owner == philosopher) {
+                return;
+            }
+            setBusy(me, false);
+        }
+        
+        lock.lockInterruptibly();
+        try {
+            setRequested(me, true);
+            while (true) {
+                int current = owner;
+                if (current == philosopher && requested(other)) {
+                    // sąsiad czekał pierwszy - oddajemy mu widelec, zanim weźmiemy go znowu
+                    changed.signalAll();
+                    changed.await();
+                    continue;
+                }
+                if (current == NONE || current == philosopher || !busy(side(current))) {
+                    owner = philosopher;
+                    setBusy(me, true);
+                    setRequested(me, false);
+                    return;
+                }
+                changed.await();
+            }
+        } catch (InterruptedException e) {
+            setRequested(me, false);
+            changed.signalAll();
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    void release(int philosopher) {
+        int me = side(philosopher);
+        setBusy(me, false);
+        if (requested(1 - me)) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Stół: n widelców w pierścieniu, filozof i między widelcami i oraz (i + 1) % n
+class Table {
+    // Myślenie i jedzenie filozofa, jeśli nie podano innego obciążenia
+    static final Workload DEFAULT_WORKLOAD = Workload.sleep(100, 300);
+    
+    static Fork[] forks(int n) {
+        return forks(n, null);
+    }
+    
+    // metrics == null - widelce bez liczników
+    static Fork[] forks(int n, TableMetrics metrics) {
+        Fork[] forks = new Fork[n];
+        for (int i = 0; i < n; i++) {
+            forks[i] = new Fork(i, metrics == null ? null : metrics.forkStats(i));
+        }
+        return forks;
+    }
+    
+    // Sposób uruchamiania filozofów:
+    //   platform - wątek systemowy na filozofa (domyślnie)
+    //   virtual  - wątek wirtualny na filozofa, pozwala na setki tysięcy filozofów
+    //   pool:K   - zadania na puli K wątków; strategie blokujące potrzebują K >= n,
+    //              inaczej czekający filozofowie zajmują wszystkie wątki puli
+    static ExecutorService executor(String mode) {
+        if (mode.equals("platform")) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("filozof-", 0).factory());
+        }
+        if (mode.equals("virtual")) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("filozof-", 0).factory());
+        }
+        if (mode.startsWith("pool:")) {
+            return Executors.newFixedThreadPool(Integer.parseInt(mode.substring(5)));
+        }
+        throw new IllegalArgumentException("Nieznany tryb wykonania: " + mode);
+    }
+    
+    public static WaitStats run(ForkAcquisitionStrategy strategy, int n, int meals) throws InterruptedException {
+        return run(strategy, n, meals, executor("platform"));
+    }
+    
+    public static WaitStats run(ForkAcquisitionStrategy strategy, int n, int meals, ExecutorService executor)
+            throws InterruptedException {
+        return run(strategy, n, meals, executor, null);
+    }
+    
+    public static WaitStats run(ForkAcquisitionStrategy strategy, int n, int meals, ExecutorService executor,
+                                TableMetrics metrics) throws InterruptedException {
+        return run(strategy, n, meals, executor, metrics, DEFAULT_WORKLOAD, DEFAULT_WORKLOAD);
+    }
+    
+    // Uruchamia filozofów na podanym wykonawcy, czeka na koniec, zamyka go i zbiera statystyki oczekiwania;
+    // metrics (może być null) dostaje liczniki widelców i filozofów na bieżąco. Błąd, który przerwał
+    // któregoś filozofa (np. zepsuty serwer widelca), rzuca dalej zamiast statystyk
+    public static WaitStats run(ForkAcquisitionStrategy strategy, int n, int meals, ExecutorService executor,
+                                TableMetrics metrics, Workload thinking, Workload eating) throws InterruptedException {
+        Fork[] forks = forks(n, metrics);
+        Philosopher[] philosophers = new Philosopher[n];
+        
+        try {
+            for (int i = 0; i < n; i++) {
+                Fork leftFork = forks[i];
+                Fork rightFork = forks[(i + 1) % n];
+                philosophers[i] = new Philosopher(i, leftFork, rightFork, meals, strategy,
+                        metrics == null ? null : metrics.philosopherStats(i), thinking, eating);
+                executor.execute(philosophers[i]);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        
+        RuntimeException failure = null;
+        int failed = 0;
+        for (Philosopher p : philosophers) {
+            if (p.getFailure() != null) {
+                failure = failure == null ? p.getFailure() : failure;
+                failed++;
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Uczta przerwana błędem, filozofów z błędem: " + failed, failure);
+        }
+        
+        WaitStats stats = new WaitStats(n);
+        for (Philosopher p : philosophers) {
+            p.collect(stats);
+        }
+        return stats;
+    }
+}
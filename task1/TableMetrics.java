@@ -0,0 +1,179 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Metryki działającego stołu: liczniki widelców i filozofów, widoczne przez JMX
+// (np. w jconsole jako dining:type=Table) i opcjonalnie wypisywane okresowo
+class TableMetrics implements TableMetricsMBean {
+    private final ForkStats[] forks;
+    private final PhilosopherStats[] philosophers;
+    private ObjectName name;
+    private ScheduledExecutorService dumper;
+    
+    TableMetrics(int n) {
+        forks = new ForkStats[n];
+        philosophers = new PhilosopherStats[n];
+        for (int i = 0; i < n; i++) {
+            forks[i] = new ForkStats();
+            philosophers[i] = new PhilosopherStats();
+        }
+    }
+    
+    ForkStats forkStats(int id) {
+        return forks[id];
+    }
+    
+    PhilosopherStats philosopherStats(int id) {
+        return philosophers[id];
+    }
+    
+    void register(String tableName) throws JMException {
+        name = new ObjectName("dining:type=Table,name=" + ObjectName.quote(tableName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+    
+    void dumpEvery(long seconds, PrintStream out) {
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "table-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> out.println(snapshot()), seconds, seconds, TimeUnit.SECONDS);
+    }
+    
+    void close() throws JMException {
+        if (dumper != null) {
+            dumper.shutdownNow();
+        }
+        if (name != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            name = null;
+        }
+    }
+    
+    @Override
+    public long getTotalMeals() {
+        long total = 0;
+        for (PhilosopherStats p : philosophers) {
+            total += p.meals.sum();
+        }
+        return total;
+    }
+    
+    @Override
+    public long[] getForkAcquisitions() {
+        long[] values = new long[forks.length];
+        for (int i = 0; i < forks.length; i++) {
+            values[i] = forks[i].acquisitions.sum();
+        }
+        return values;
+    }
+    
+    @Override
+    public long[] getFailedTryAcquires() {
+        long[] values = new long[forks.length];
+        for (int i = 0; i < forks.length; i++) {
+            values[i] = forks[i].failedTryAcquires.sum();
+        }
+        return values;
+    }
+    
+    @Override
+    public long[] getPhilosopherMeals() {
+        long[] values = new long[philosophers.length];
+        for (int i = 0; i < philosophers.length; i++) {
+            values[i] = philosophers[i].meals.sum();
+        }
+        return values;
+    }
+    
+    @Override
+    public long[] getPhilosopherWaitNanos() {
+        long[] values = new long[philosophers.length];
+        for (int i = 0; i < philosophers.length; i++) {
+            values[i] = philosophers[i].waitNanos.sum();
+        }
+        return values;
+    }
+    
+    @Override
+    public long[] getPhilosopherThinkNanos() {
+        long[] values = new long[philosophers.length];
+        for (int i = 0; i < philosophers.length; i++) {
+            values[i] = philosophers[i].thinkNanos.sum();
+        }
+        return values;
+    }
+    
+    @Override
+    public long[] getPhilosopherEatNanos() {
+        long[] values = new long[philosophers.length];
+        for (int i = 0; i < philosophers.length; i++) {
+            values[i] = philosophers[i].eatNanos.sum();
+        }
+        return values;
+    }
+    
+    // Widelec najdłużej trzymany łącznie - wąskie gardło stołu
+    @Override
+    public int getHottestFork() {
+        int hottest = 0;
+        long best = -1;
+        for (int i = 0; i < forks.length; i++) {
+            long held = forks[i].holdNanos.sum();
+            if (held > best) {
+                best = held;
+                hottest = i;
+            }
+        }
+        return hottest;
+    }
+    
+    // Filozof z najmniejszą liczbą posiłków
+    @Override
+    public int getLaggingPhilosopher() {
+        int lagging = 0;
+        long worst = Long.MAX_VALUE;
+        for (int i = 0; i < philosophers.length; i++) {
+            long meals = philosophers[i].meals.sum();
+            if (meals < worst) {
+                worst = meals;
+                lagging = i;
+            }
+        }
+        return lagging;
+    }
+    
+    @Override
+    public String fork(int id) {
+        ForkStats f = forks[id];
+        StringBuilder histogram = new StringBuilder();
+        long[] buckets = f.holdHistogram();
+        for (int k = 0; k < buckets.length; k++) {
+            if (buckets[k] > 0) {
+                histogram.append(' ').append(k == 0 ? "<1" : "<" + (1L << k)).append("us:").append(buckets[k]);
+            }
+        }
+        return String.format(Locale.ROOT, "widelec %d: podniesienia %d, nieudane tryAcquire %d, trzymany %.1f ms, histogram%s",
+                id, f.acquisitions.sum(), f.failedTryAcquires.sum(), f.holdNanos.sum() / 1e6, histogram);
+    }
+    
+    @Override
+    public String philosopher(int id) {
+        PhilosopherStats p = philosophers[id];
+        return String.format(Locale.ROOT, "filozof %d: posiłki %d, czekanie %.1f ms, myślenie %.1f ms, jedzenie %.1f ms",
+                id, p.meals.sum(), p.waitNanos.sum() / 1e6, p.thinkNanos.sum() / 1e6, p.eatNanos.sum() / 1e6);
+    }
+    
+    @Override
+    public String snapshot() {
+        return "[metryki] posiłki " + getTotalMeals()
+                + "\n[metryki] najgorętszy " + fork(getHottestFork())
+                + "\n[metryki] najwolniejszy " + philosopher(getLaggingPhilosopher());
+    }
+}
@@ -0,0 +1,26 @@
+// Widok JMX na metryki stołu (dining:type=Table,name=...)
+public interface TableMetricsMBean {
+    long getTotalMeals();
+    
+    long[] getForkAcquisitions();
+    
+    long[] getFailedTryAcquires();
+    
+    long[] getPhilosopherMeals();
+    
+    long[] getPhilosopherWaitNanos();
+    
+    long[] getPhilosopherThinkNanos();
+    
+    long[] getPhilosopherEatNanos();
+    
+    int getHottestFork();
+    
+    int getLaggingPhilosopher();
+    
+    String fork(int id);
+    
+    String philosopher(int id);
+    
+    String snapshot();
+}
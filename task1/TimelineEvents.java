@@ -0,0 +1,83 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Zdarzenia JDK Flight Recorder z przebiegiem uczty, do osi czasu z TimelineExport:
+//   java -XX:StartFlightRecording=filename=uczta.jfr -Dlog=false Main 6 5 100
+// Bez nagrywania od startu JVM (ENABLED == false) klasy zdarzeń nie są nawet ładowane - samo ich
+// załadowanie uruchamia maszynerię JFR za ~0,3 s; JFR.start z jcmd w trakcie uczty ich nie zobaczy.
+// Pola ustawia się dopiero po shouldCommit(), więc zdarzenie odfiltrowane w ustawieniach nagrania nic nie zapisuje.
+final class TimelineEvents {
+    static final boolean ENABLED = FlightRecorder.isInitialized();
+    
+    static final String THINK = "philosophers.Think";
+    static final String FORK_WAIT = "philosophers.ForkWait";
+    static final String EAT = "philosophers.Eat";
+    static final String CORRIDOR = "philosophers.Corridor";
+    
+    private TimelineEvents() {
+    }
+    
+    @Name(THINK)
+    @Label("Myślenie")
+    @Category("Filozofowie")
+    @StackTrace(false)
+    static class Think extends Event {
+        @Label("Filozof")
+        int philosopher;
+    }
+    
+    @Name(FORK_WAIT)
+    @Label("Czekanie na widelce")
+    @Description("Od głodu do podniesienia obu widelców")
+    @Category("Filozofowie")
+    @StackTrace(false)
+    static class ForkWait extends Event {
+        @Label("Filozof")
+        int philosopher;
+        
+        @Label("Lewy widelec")
+        int leftFork;
+        
+        @Label("Prawy widelec")
+        int rightFork;
+        
+        @Label("Przegrane próby")
+        int lost;
+    }
+    
+    @Name(EAT)
+    @Label("Jedzenie")
+    @Category("Filozofowie")
+    @StackTrace(false)
+    static class Eat extends Event {
+        @Label("Filozof")
+        int philosopher;
+        
+        @Label("Lewy widelec")
+        int leftFork;
+        
+        @Label("Prawy widelec")
+        int rightFork;
+    }
+    
+    @Name(CORRIDOR)
+    @Label("Korytarz")
+    @Description("Czekanie na widelce w odwrotnej kolejności, gdy jadalnia jest pełna")
+    @Category("Filozofowie")
+    @StackTrace(false)
+    static class Corridor extends Event {
+        @Label("Filozof")
+        int philosopher;
+        
+        @Label("Pierwszy widelec")
+        int firstFork;
+        
+        @Label("Drugi widelec")
+        int secondFork;
+    }
+}
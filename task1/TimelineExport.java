@@ -0,0 +1,190 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Zamienia nagranie JFR ze zdarzeniami TimelineEvents na oś czasu w formacie Chrome trace
+// (chrome://tracing albo ui.perfetto.dev). Wiersz na filozofa: myślenie, czekanie, korytarz, jedzenie;
+// wiersz na widelec: kto na nim je - konwoje widać jako schodki czekania wzdłuż stołu, gorące widelce jako pełne wiersze.
+//
+//   java -XX:StartFlightRecording=filename=uczta.jfr -Dlog=false Main 4 5 100
+//   java TimelineExport uczta.jfr [uczta.json]
+class TimelineExport {
+    private static final int PHILOSOPHERS = 1;
+    private static final int FORKS = 2;
+    
+    private final Writer out;
+    private final long origin; // początek pierwszego zdarzenia, ns od epoki
+    private final BitSet philosophers = new BitSet();
+    private final BitSet forks = new BitSet();
+    private long[] forkHeld = new long[0];
+    private long[] forkWaited = new long[0];
+    private boolean first = true;
+    private long events;
+    
+    private TimelineExport(Writer out, long origin) {
+        this.out = out;
+        this.origin = origin;
+    }
+    
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+    
+    private static boolean timeline(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case TimelineEvents.THINK:
+            case TimelineEvents.FORK_WAIT:
+            case TimelineEvents.EAT:
+            case TimelineEvents.CORRIDOR:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    private void accept(RecordedEvent event) throws IOException {
+        int philosopher = event.getInt("philosopher");
+        long start = nanos(event.getStartTime()) - origin;
+        long duration = event.getDuration().toNanos();
+        philosophers.set(philosopher);
+        events++;
+        switch (event.getEventType().getName()) {
+            case TimelineEvents.THINK:
+                slice("myśli", PHILOSOPHERS, philosopher, start, duration, "");
+                break;
+            case TimelineEvents.FORK_WAIT: {
+                int left = event.getInt("leftFork");
+                int right = event.getInt("rightFork");
+                slice("czeka", PHILOSOPHERS, philosopher, start, duration, String.format(Locale.ROOT,
+                        "\"lewy\":%d,\"prawy\":%d,\"przegrane\":%d", left, right, event.getInt("lost")));
+                waited(left, duration);
+                waited(right, duration);
+                break;
+            }
+            case TimelineEvents.CORRIDOR:
+                slice("korytarz", PHILOSOPHERS, philosopher, start, duration, String.format(Locale.ROOT,
+                        "\"pierwszy\":%d,\"drugi\":%d", event.getInt("firstFork"), event.getInt("secondFork")));
+                break;
+            case TimelineEvents.EAT: {
+                int left = event.getInt("leftFork");
+                int right = event.getInt("rightFork");
+                slice("je", PHILOSOPHERS, philosopher, start, duration, "");
+                for (int fork : new int[] {left, right}) {
+                    slice("filozof " + philosopher, FORKS, fork, start, duration, "");
+                    forks.set(fork);
+                    grow(fork);
+                    forkHeld[fork] += duration;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+    
+    private void waited(int fork, long duration) {
+        grow(fork);
+        forkWaited[fork] += duration / 2; // czekanie na parę, połowa na każdy widelec
+    }
+    
+    private void grow(int fork) {
+        if (fork >= forkHeld.length) {
+            forkHeld = Arrays.copyOf(forkHeld, Math.max(fork + 1, forkHeld.length * 2));
+            forkWaited = Arrays.copyOf(forkWaited, forkHeld.length);
+        }
+    }
+    
+    // Zdarzenie "X" (czas trwania) - ts i dur w mikrosekundach
+    private void slice(String name, int pid, int tid, long start, long duration, String args) throws IOException {
+        separator();
+        out.write(String.format(Locale.ROOT,
+                "{\"name\":\"%s\",\"ph\":\"X\",\"pid\":%d,\"tid\":%d,\"ts\":%.3f,\"dur\":%.3f,\"args\":{%s}}",
+                name, pid, tid, start / 1e3, duration / 1e3, args));
+    }
+    
+    private void name(String kind, int pid, int tid, String name) throws IOException {
+        separator();
+        out.write(String.format(Locale.ROOT,
+                "{\"name\":\"%s\",\"ph\":\"M\",\"pid\":%d,\"tid\":%d,\"args\":{\"name\":\"%s\"}}", kind, pid, tid, name));
+    }
+    
+    private void separator() throws IOException {
+        out.write(first ? "\n" : ",\n");
+        first = false;
+    }
+    
+    private void finish() throws IOException {
+        name("process_name", PHILOSOPHERS, 0, "Filozofowie");
+        name("process_name", FORKS, 0, "Widelce");
+        for (int p = philosophers.nextSetBit(0); p >= 0; p = philosophers.nextSetBit(p + 1)) {
+            name("thread_name", PHILOSOPHERS, p, "Filozof " + p);
+        }
+        for (int f = forks.nextSetBit(0); f >= 0; f = forks.nextSetBit(f + 1)) {
+            name("thread_name", FORKS, f, "Widelec " + f);
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Użycie: java TimelineExport NAGRANIE.jfr [OŚ.json]");
+            return;
+        }
+        Path recording = Path.of(args[0]);
+        Path target = Path.of(args.length > 1 ? args[1] : args[0].replaceFirst("\\.jfr$", "") + ".json");
+        
+        // pierwsze przejście tylko po początek osi, żeby czasy zaczynały się od zera
+        long origin = Long.MAX_VALUE;
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (timeline(event)) {
+                    origin = Math.min(origin, nanos(event.getStartTime()));
+                }
+            }
+        }
+        if (origin == Long.MAX_VALUE) {
+            System.out.println("Brak zdarzeń " + TimelineEvents.THINK + " itd. - czy nagrywał -XX:StartFlightRecording?");
+            return;
+        }
+        
+        TimelineExport export;
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+             RecordingFile file = new RecordingFile(recording)) {
+            export = new TimelineExport(out, origin);
+            out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (timeline(event)) {
+                    export.accept(event);
+                }
+            }
+            export.finish();
+            out.write("\n]}\n");
+        }
+        System.out.println(String.format(Locale.ROOT, "%d zdarzeń, %d filozofów, %d widelców -> %s",
+                export.events, export.philosophers.cardinality(), export.forks.cardinality(), target));
+        
+        // najgorętsze widelce: najdłużej wyczekiwane, a przy równych - najdłużej zajęte
+        Integer[] order = new Integer[export.forks.length()];
+        for (int f = 0; f < order.length; f++) {
+            order[f] = f;
+        }
+        long[] held = export.forkHeld;
+        long[] waited = export.forkWaited;
+        Arrays.sort(order, (a, b) -> waited[a] != waited[b] ? Long.compare(waited[b], waited[a]) : Long.compare(held[b], held[a]));
+        System.out.println("Widelec   zajęty[ms]  czekanie[ms]");
+        for (int i = 0; i < Math.min(5, order.length); i++) {
+            int f = order[i];
+            System.out.println(String.format(Locale.ROOT, "%7d %12.1f %13.1f", f, held[f] / 1e6, waited[f] / 1e6));
+        }
+    }
+}
@@ -0,0 +1,443 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+// Jeden proces stołu rozproszonego (DistributedTable): obsługuje filozofów [from, to) jednym wątkiem
+// z pętlą zdarzeń na Selectorze - bez wątku na połączenie ani na filozofa, myślenie i jedzenie to
+// zegary w tej pętli (z rozdzielczością 1 ms, jak limit czasu Selector.select). Procesy łączą się
+// każdy z każdym przez localhost.
+//
+// Widelec to żeton u jednego z dwóch sąsiadów. Filozof, który żetonu nie ma, wysyła REQUEST;
+// właściciel oddaje go od razu (TOKEN), chyba że widelca używa - wtedy po jedzeniu. Używany jest
+// widelec podniesiony w kolejności rozwiązania, więc działa ten sam argument co w zamkach:
+//   3 - asymetryczne: parzyści najpierw prawy, nieparzyści najpierw lewy,
+//   5 - z arbitrem: najpierw ENTER do arbitra (proces 0) i GRANT, gdy je mniej niż n - 1, potem
+//       lewy i prawy, po jedzeniu LEAVE.
+// Komunikaty z jednego obrotu pętli trafiają do bufora połączenia i idą jednym zapisem.
+class TokenNode {
+    static final int MESSAGE = 13; // typ, widelec, od, do
+    static final byte REQUEST = 0;
+    static final byte TOKEN = 1;
+    static final byte ENTER = 2;
+    static final byte GRANT = 3;
+    static final byte LEAVE = 4;
+    static final byte DONE = 5;
+    static final int ARBITER = -1;
+    
+    private static final int THINKING = 0;
+    private static final int HUNGRY = 1;
+    private static final int EATING = 2;
+    private static final int FINISHED = 3;
+    
+    // Połączenie z innym procesem: bufory wejściowy i wyjściowy
+    private static final class Link {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+        ByteBuffer out = ByteBuffer.allocateDirect(1 << 16);
+        SelectionKey key;
+        
+        Link(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+    
+    private final int node;
+    private final int processes;
+    private final int n;
+    private final int choice;
+    private final int meals;
+    private final long thinkNanos;
+    private final long eatNanos;
+    private final int from;
+    private final int to;
+    private final Link[] links;
+    private final ArrayDeque<int[]> local = new ArrayDeque<>();
+    private final PriorityQueue<long[]> timers = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+    private Selector selector;
+    
+    // Stan filozofów z zakresu, indeks id - from; strona 0 to lewy widelec, 1 - prawy
+    private final int[] state;
+    private final int[] mealsLeft;
+    private final int[] step; // ile widelców już podniósł
+    private final boolean[][] have;
+    private final boolean[][] used;
+    private final boolean[][] pending; // sąsiad chce widelca, oddać po jedzeniu
+    private final boolean[][] requested;
+    private final long[] hungryAt;
+    private int finished;
+    private boolean announced;
+    
+    // Arbiter żyje w procesie 0
+    private int permits;
+    private final ArrayDeque<Integer> arbiterQueue = new ArrayDeque<>();
+    
+    private int doneNodes;
+    private final LatencyHistogram waits = new LatencyHistogram();
+    private final LatencyHistogram mealTimes = new LatencyHistogram();
+    private long networkMessages;
+    private long localMessages;
+    private long writes;
+    private long bytes;
+    
+    TokenNode(int node, int processes, int n, int choice, int meals, long thinkNanos, long eatNanos) {
+        if (choice != 3 && choice != 5) {
+            throw new IllegalArgumentException("Rozproszone są tylko rozwiązania 3 i 5, nie " + choice);
+        }
+        if (n < 2 || processes > n) {
+            throw new IllegalArgumentException("Potrzeba co najmniej 2 filozofów i filozofa na proces");
+        }
+        this.node = node;
+        this.processes = processes;
+        this.n = n;
+        this.choice = choice;
+        this.meals = meals;
+        this.thinkNanos = thinkNanos;
+        this.eatNanos = eatNanos;
+        this.from = first(node);
+        this.to = first(node + 1);
+        this.links = new Link[processes];
+        int size = to - from;
+        state = new int[size];
+        mealsLeft = new int[size];
+        step = new int[size];
+        have = new boolean[size][2];
+        used = new boolean[size][2];
+        pending = new boolean[size][2];
+        requested = new boolean[size][2];
+        hungryAt = new long[size];
+        permits = n - 1;
+    }
+    
+    // Pierwszy filozof procesu k
+    private int first(int k) {
+        return (int) ((long) k * n / processes);
+    }
+    
+    private int owner(int philosopher) {
+        if (philosopher == ARBITER) {
+            return 0;
+        }
+        int k = (int) ((long) philosopher * processes / n);
+        while (first(k + 1) <= philosopher) {
+            k++;
+        }
+        while (first(k) > philosopher) {
+            k--;
+        }
+        return k;
+    }
+    
+    private int leftFork(int id) {
+        return id;
+    }
+    
+    private int rightFork(int id) {
+        return (id + 1) % n;
+    }
+    
+    // Sąsiad dzielący widelec ze strony side
+    private int neighbor(int id, int side) {
+        return side == 0 ? (id + n - 1) % n : (id + 1) % n;
+    }
+    
+    private int firstSide(int id) {
+        return choice == 3 && id % 2 == 0 ? 1 : 0;
+    }
+    
+    // Nawiązuje połączenia: z procesami o mniejszych numerach łączy się sam, na większe czeka
+    void connect(int basePort) throws IOException, InterruptedException {
+        selector = Selector.open();
+        if (processes == 1) {
+            return;
+        }
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", basePort + node));
+            for (int k = 0; k < node; k++) {
+                SocketChannel channel = null;
+                for (int attempt = 0; channel == null; attempt++) {
+                    try {
+                        channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", basePort + k));
+                    } catch (IOException e) {
+                        if (attempt == 200) {
+                            throw e;
+                        }
+                        Thread.sleep(50);
+                    }
+                }
+                ByteBuffer hello = ByteBuffer.allocate(4).putInt(0, node);
+                while (hello.hasRemaining()) {
+                    channel.write(hello);
+                }
+                links[k] = new Link(channel);
+            }
+            for (int accepted = node + 1; accepted < processes; accepted++) {
+                SocketChannel channel = server.accept();
+                ByteBuffer hello = ByteBuffer.allocate(4);
+                while (hello.hasRemaining()) {
+                    if (channel.read(hello) < 0) {
+                        throw new IOException("Proces zamknął połączenie przed przedstawieniem się");
+                    }
+                }
+                links[hello.getInt(0)] = new Link(channel);
+            }
+        }
+        for (Link link : links) {
+            if (link != null) {
+                link.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                link.channel.configureBlocking(false);
+                link.key = link.channel.register(selector, SelectionKey.OP_READ, link);
+            }
+        }
+    }
+    
+    void run() throws IOException {
+        long now = System.nanoTime();
+        for (int id = from; id < to; id++) {
+            int i = id - from;
+            mealsLeft[i] = meals;
+            have[i][0] = true; // widelec i zaczyna u filozofa i
+            if (meals == 0) {
+                state[i] = FINISHED;
+                finished++;
+            } else {
+                timers.add(new long[] {now + thinkNanos, id});
+            }
+        }
+        checkDone();
+        while (doneNodes < processes || hasOutput()) {
+            long wait = timers.isEmpty() ? 0 : timers.peek()[0] - System.nanoTime();
+            if (!local.isEmpty() || (!timers.isEmpty() && wait <= 0)) {
+                selector.selectNow();
+            } else if (timers.isEmpty()) {
+                selector.select(hasOutput() ? 1 : 0);
+            } else {
+                selector.select(Math.max(1, wait / 1_000_000));
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                Link link = (Link) key.attachment();
+                if (key.isValid() && key.isWritable()) {
+                    flush(link);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read(link);
+                }
+            }
+            selector.selectedKeys().clear();
+            now = System.nanoTime();
+            while (!timers.isEmpty() && timers.peek()[0] <= now) {
+                timer((int) timers.poll()[1]);
+            }
+            while (!local.isEmpty()) {
+                int[] m = local.poll();
+                handle((byte) m[0], m[1], m[2], m[3]);
+            }
+            for (Link link : links) {
+                if (link != null && link.out.position() > 0) {
+                    flush(link);
+                }
+            }
+        }
+        for (Link link : links) {
+            if (link != null) {
+                link.channel.close();
+            }
+        }
+        selector.close();
+    }
+    
+    private boolean hasOutput() {
+        for (Link link : links) {
+            if (link != null && link.out.position() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void read(Link link) throws IOException {
+        if (link.channel.read(link.in) < 0) {
+            link.key.cancel();
+            return;
+        }
+        link.in.flip();
+        while (link.in.remaining() >= MESSAGE) {
+            byte type = link.in.get();
+            int fork = link.in.getInt();
+            int sender = link.in.getInt();
+            int receiver = link.in.getInt();
+            handle(type, fork, sender, receiver);
+        }
+        link.in.compact();
+    }
+    
+    // Jeden zapis na połączenie; czego system nie przyjął, czeka na OP_WRITE
+    private void flush(Link link) throws IOException {
+        link.out.flip();
+        bytes += link.channel.write(link.out);
+        writes++;
+        link.out.compact();
+        link.key.interestOps(link.out.position() > 0
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+    
+    private void send(byte type, int fork, int sender, int receiver) {
+        int target = owner(receiver);
+        if (target == node) {
+            localMessages++;
+            local.add(new int[] {type, fork, sender, receiver});
+            return;
+        }
+        networkMessages++;
+        write(links[target], type, fork, sender, receiver);
+    }
+    
+    private void write(Link link, byte type, int fork, int sender, int receiver) {
+        if (link.out.remaining() < MESSAGE) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(link.out.capacity() * 2);
+            link.out.flip();
+            grown.put(link.out);
+            link.out = grown;
+        }
+        link.out.put(type).putInt(fork).putInt(sender).putInt(receiver);
+    }
+    
+    private void handle(byte type, int fork, int sender, int receiver) {
+        switch (type) {
+            case REQUEST: request(receiver, fork == leftFork(receiver) ? 0 : 1); break;
+            case TOKEN: token(receiver, fork == leftFork(receiver) ? 0 : 1); break;
+            case ENTER:
+                if (permits > 0) {
+                    permits--;
+                    send(GRANT, -1, ARBITER, sender);
+                } else {
+                    arbiterQueue.add(sender);
+                }
+                break;
+            case GRANT: acquireNext(receiver); break;
+            case LEAVE:
+                if (arbiterQueue.isEmpty()) {
+                    permits++;
+                } else {
+                    send(GRANT, -1, ARBITER, arbiterQueue.poll());
+                }
+                break;
+            case DONE: doneNodes++; break;
+            default: throw new IllegalStateException("Nieznany komunikat " + type);
+        }
+    }
+    
+    private void timer(int id) {
+        int i = id - from;
+        if (state[i] == THINKING) {
+            state[i] = HUNGRY;
+            hungryAt[i] = System.nanoTime();
+            step[i] = 0;
+            if (choice == 5) {
+                send(ENTER, -1, id, ARBITER);
+            } else {
+                acquireNext(id);
+            }
+        } else {
+            full(id);
+        }
+    }
+    
+    // Podnosi kolejne widelce, które ma; po brakujący wysyła REQUEST
+    private void acquireNext(int id) {
+        int i = id - from;
+        while (step[i] < 2) {
+            int side = step[i] == 0 ? firstSide(id) : 1 - firstSide(id);
+            if (!have[i][side]) {
+                if (!requested[i][side]) {
+                    requested[i][side] = true;
+                    send(REQUEST, side == 0 ? leftFork(id) : rightFork(id), id, neighbor(id, side));
+                }
+                return;
+            }
+            used[i][side] = true;
+            step[i]++;
+        }
+        state[i] = EATING;
+        waits.record(System.nanoTime() - hungryAt[i]);
+        timers.add(new long[] {System.nanoTime() + eatNanos, id});
+    }
+    
+    private void request(int id, int side) {
+        int i = id - from;
+        if (have[i][side] && !used[i][side]) {
+            give(id, side);
+        } else {
+            pending[i][side] = true;
+        }
+    }
+    
+    private void give(int id, int side) {
+        int i = id - from;
+        have[i][side] = false;
+        send(TOKEN, side == 0 ? leftFork(id) : rightFork(id), id, neighbor(id, side));
+    }
+    
+    private void token(int id, int side) {
+        int i = id - from;
+        have[i][side] = true;
+        requested[i][side] = false;
+        if (state[i] == HUNGRY) {
+            acquireNext(id);
+        }
+    }
+    
+    private void full(int id) {
+        int i = id - from;
+        mealTimes.record(System.nanoTime() - hungryAt[i]);
+        for (int side = 0; side < 2; side++) {
+            used[i][side] = false;
+            if (pending[i][side]) {
+                pending[i][side] = false;
+                give(id, side);
+            }
+        }
+        if (choice == 5) {
+            send(LEAVE, -1, id, ARBITER);
+        }
+        if (--mealsLeft[i] == 0) {
+            state[i] = FINISHED;
+            finished++;
+            checkDone();
+        } else {
+            state[i] = THINKING;
+            timers.add(new long[] {System.nanoTime() + thinkNanos, id});
+        }
+    }
+    
+    // Gdy wszyscy filozofowie procesu zjedli, proces dalej oddaje żetony, aż skończą wszyscy
+    private void checkDone() {
+        if (finished < to - from || announced) {
+            return;
+        }
+        announced = true;
+        doneNodes++;
+        for (Link link : links) {
+            if (link != null) {
+                write(link, DONE, -1, node, ARBITER);
+            }
+        }
+    }
+    
+    // Wiersz dla DistributedTable: proces, posiłki, komunikaty sieciowe i lokalne, zapisy, bajty,
+    // czekanie p50/p99/maks. i posiłek (od głodu do końca jedzenia) p50/p99 w nanosekundach
+    String result() {
+        long[] values = {node, (long) (to - from) * meals, networkMessages, localMessages, writes, bytes,
+                waits.percentile(50), waits.percentile(99), waits.getMax(),
+                mealTimes.percentile(50), mealTimes.percentile(99)};
+        return DistributedTable.RESULT + Arrays.toString(values);
+    }
+}
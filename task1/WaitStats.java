@@ -0,0 +1,42 @@
+import java.io.PrintStream;
+import java.util.Locale;
+
+// Najdłuższe oczekiwanie na widelce i najdłuższa seria przegranych prób każdego filozofa
+class WaitStats {
+    final long[] maxWaitNanos;
+    final long[] maxLostStreak;
+    
+    WaitStats(int n) {
+        maxWaitNanos = new long[n];
+        maxLostStreak = new long[n];
+    }
+    
+    int worstWaiter() {
+        int worst = 0;
+        for (int i = 1; i < maxWaitNanos.length; i++) {
+            if (maxWaitNanos[i] > maxWaitNanos[worst]) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+    
+    int worstLoser() {
+        int worst = 0;
+        for (int i = 1; i < maxLostStreak.length; i++) {
+            if (maxLostStreak[i] > maxLostStreak[worst]) {
+                worst = i;
+            }
+        }
+        return worst;
+    }
+    
+    void print(PrintStream out) {
+        int waiter = worstWaiter();
+        int loser = worstLoser();
+        out.println(String.format(Locale.ROOT, "Najdłuższe oczekiwanie: %.3f ms (filozof %d)",
+                maxWaitNanos[waiter] / 1e6, waiter));
+        out.println(String.format(Locale.ROOT, "Najdłuższa seria przegranych prób: %d (filozof %d)",
+                maxLostStreak[loser], loser));
+    }
+}
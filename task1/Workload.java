@@ -0,0 +1,108 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Praca filozofa w think() i eat(). Uśpienie nie obciąża procesora; spin, touch i alloc
+// trzymają go zajętym, a w eat() także widelce - wtedy liczy się, jak długo rozwiązanie je trzyma.
+interface Workload {
+    void run() throws InterruptedException;
+    
+    // Stan wątku: wynik obliczeń (żeby JIT ich nie usunął) i obiekty z alloc
+    final class Scratch {
+        private static final ThreadLocal<Scratch> CURRENT = ThreadLocal.withInitial(Scratch::new);
+        
+        long sink;
+        final Object[] recent = new Object[16]; // ostatnie obiekty z alloc, żeby nie zniknęły w analizie ucieczki
+        
+        static Scratch get() {
+            return CURRENT.get();
+        }
+    }
+    
+    Workload NONE = () -> { };
+    
+    // Dotychczasowe zachowanie Philosopher: losowo od minMillis do maxMillis - 1
+    static Workload sleep(int minMillis, int maxMillis) {
+        return () -> Thread.sleep(ThreadLocalRandom.current().nextInt(minMillis, maxMillis));
+    }
+    
+    // Jak przerwy w Benchmark: parkNanos bez zajmowania procesora
+    static Workload park(long nanos) {
+        if (nanos <= 0) {
+            return NONE;
+        }
+        return () -> {
+            LockSupport.parkNanos(nanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        };
+    }
+    
+    // Stała liczba kroków obliczeń na rejestrach (xorshift), bez dostępu do pamięci
+    static Workload spin(long iterations) {
+        return () -> {
+            Scratch scratch = Scratch.get();
+            long x = scratch.sink | 1;
+            for (long i = 0; i < iterations; i++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+            scratch.sink = x;
+        };
+    }
+    
+    // Jeden przebieg po zbiorze roboczym wątku wielkości kilobytes, po jednym słowie na linię
+    // pamięci podręcznej - gdy zbiór nie mieści się w L1/L2, czas jedzenia rośnie razem z chybieniami.
+    // Każde touch ma własny zbiór na wątek, więc -think touch:64 -eat touch:4096 nie alokują go od nowa
+    static Workload touch(int kilobytes) {
+        int words = kilobytes * 1024 / Long.BYTES;
+        ThreadLocal<long[]> workingSet = ThreadLocal.withInitial(() -> new long[words]);
+        return () -> {
+            Scratch scratch = Scratch.get();
+            long[] memory = workingSet.get();
+            long sum = scratch.sink;
+            for (int i = 0; i < words; i += 8) {
+                sum += memory[i];
+                memory[i] = sum;
+            }
+            scratch.sink = sum;
+        };
+    }
+    
+    // Krótko żyjące obiekty po 64 bajty, razem kilobytes - obciąża alokator i młode pokolenie GC
+    static Workload alloc(int kilobytes) {
+        int count = kilobytes * 1024 / 64;
+        return () -> {
+            Object[] recent = Scratch.get().recent;
+            for (int i = 0; i < count; i++) {
+                long[] chunk = new long[6]; // z nagłówkiem 64 bajty
+                chunk[0] = i;
+                recent[i & (recent.length - 1)] = chunk;
+            }
+        };
+    }
+    
+    // Liczba - parkNanos przez tyle mikrosekund (jak -think i -eat w Benchmark), albo
+    // sleep:MIN-MAX (ms), spin:ITERACJE, touch:KB, alloc:KB
+    static Workload parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            return park(Long.parseLong(spec) * 1000);
+        }
+        String argument = spec.substring(colon + 1);
+        switch (spec.substring(0, colon)) {
+            case "sleep": {
+                int dash = argument.indexOf('-');
+                int min = Integer.parseInt(dash < 0 ? argument : argument.substring(0, dash));
+                int max = dash < 0 ? min + 1 : Integer.parseInt(argument.substring(dash + 1));
+                return sleep(min, max);
+            }
+            case "park": return park(Long.parseLong(argument) * 1000);
+            case "spin": return spin(Long.parseLong(argument));
+            case "touch": return touch(Integer.parseInt(argument));
+            case "alloc": return alloc(Integer.parseInt(argument));
+            default: throw new IllegalArgumentException("Nieznane obciążenie: " + spec);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+// Postać normalna Foaty budowana przyrostowo, litera po literze, bez trzymania całego słowa.
+// Klasa (warstwa) operacji to 1 + największa klasa operacji, od których zależy:
+// ostatniego zapisu każdej zmiennej, której używa, oraz odczytów zapisywanej zmiennej od jej
+// ostatniego zapisu. Wystarczy do tego stan na zmienną, więc pamięć zależy od alfabetu, nie od śladu.
+// Daje te same klasy co algorytm stosów z notatnika.
+class FoataBuilder {
+    private final Transactions transactions;
+    private final int[] lastWrite; // klasa ostatniego zapisu zmiennej
+    private final int[] lastRead; // największa klasa odczytu od ostatniego zapisu
+    private int layers;
+    
+    FoataBuilder(Transactions transactions) {
+        this.transactions = transactions;
+        this.lastWrite = new int[transactions.variableCount()];
+        this.lastRead = new int[transactions.variableCount()];
+    }
+    
+    // Zwraca klasę Foaty (od 0) dołożonej litery
+    int add(int letter) {
+        Transaction transaction = transactions.get(letter);
+        int target = transaction.getTarget();
+        int[] variables = transaction.getVariables();
+        int layer = Math.max(lastWrite[target], lastRead[target]);
+        for (int v : variables) {
+            layer = Math.max(layer, lastWrite[v]);
+        }
+        // lastWrite i lastRead trzymają klasę + 1, żeby 0 znaczyło "jeszcze nie było"
+        lastWrite[target] = layer + 1;
+        lastRead[target] = 0;
+        for (int v : variables) {
+            if (v != target) {
+                lastRead[v] = Math.max(lastRead[v], layer + 1);
+            }
+        }
+        layers = Math.max(layers, layer + 1);
+        return layer;
+    }
+    
+    int layers() {
+        return layers;
+    }
+    
+    // Klasy całego słowa
+    static int[] layers(Transactions transactions, byte[] trace) {
+        FoataBuilder builder = new FoataBuilder(transactions);
+        int[] layer = new int[trace.length];
+        for (int i = 0; i < trace.length; i++) {
+            layer[i] = builder.add(trace[i]);
+        }
+        return layer;
+    }
+    
+    // Zapis jak w notatniku: (b)(ad)(a)(bc), litery w klasie w kolejności alfabetu
+    static String format(Transactions transactions, byte[] trace, int[] layer) {
+        int count = 0;
+        for (int l : layer) {
+            count = Math.max(count, l + 1);
+        }
+        boolean[][] present = new boolean[count][transactions.size()];
+        for (int i = 0; i < trace.length; i++) {
+            present[layer[i]][trace[i]] = true;
+        }
+        StringBuilder result = new StringBuilder();
+        for (boolean[] letters : present) {
+            result.append('(');
+            for (int a = 0; a < letters.length; a++) {
+                if (letters[a]) {
+                    result.append(transactions.letter(a));
+                }
+            }
+            result.append(')');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,223 @@
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Wykonuje ślad transakcji klasa po klasie postaci normalnej Foaty: operacje z jednej klasy są
+// parami niezależne (żadna nie zapisuje zmiennej, której używa inna), więc działają równolegle
+// na wspólnej tablicy zmiennych bez blokad, a kolejne klasy rozdziela join na ForkJoinPool.
+// Wynik porównujemy z wykonaniem sekwencyjnym w kolejności słowa.
+//
+// Klasa idzie na pulę tylko wtedy, gdy da się ją podzielić na co najmniej dwa zadania po GRAIN kroków
+// (operacja to work + 1 kroków). Klasy są wąskie - dla transakcje.txt co najwyżej 2 operacje,
+// dla transakcje2.txt 3 - więc przy małym work wszystko wykonuje się w jednym wątku, a pulę widać
+// dopiero przy cięższych transakcjach; liczbę klas rozdzielonych na zadania wypisuje main.
+//
+// Przykłady:
+//   java FoataExecutor -word baadcb
+//   java FoataExecutor -transactions transakcje2.txt -alphabet alfabet2.txt -word acdcfbbe
+//   java FoataExecutor -transactions transakcje2.txt -alphabet alfabet2.txt -length 100000 -work 20000 -threads 4
+class FoataExecutor {
+    // Najmniejsze zadanie na puli, w krokach mieszania (po JIT ok. 0,1-0,2 ns na krok, czyli kilka µs);
+    // mniejsze klasy wykonujemy od razu
+    static final int GRAIN = 20_000;
+    
+    private final Transactions transactions;
+    private final byte[] trace;
+    private final int[] order; // numery operacji posortowane po klasach
+    private final int[] start; // order[start[l] .. start[l + 1]) to klasa l
+    private final int work;
+    
+    FoataExecutor(Transactions transactions, byte[] trace, int[] layer, int work) {
+        this.transactions = transactions;
+        this.trace = trace;
+        this.work = work;
+        int count = 0;
+        for (int l : layer) {
+            count = Math.max(count, l + 1);
+        }
+        // sortowanie przez zliczanie, w klasie zostaje kolejność ze słowa
+        start = new int[count + 1];
+        for (int l : layer) {
+            start[l + 1]++;
+        }
+        for (int l = 0; l < count; l++) {
+            start[l + 1] += start[l];
+        }
+        int[] next = Arrays.copyOf(start, count);
+        order = new int[trace.length];
+        for (int i = 0; i < trace.length; i++) {
+            order[next[layer[i]]++] = i;
+        }
+    }
+    
+    int layers() {
+        return start.length - 1;
+    }
+    
+    int maxWidth() {
+        int width = 0;
+        for (int l = 0; l + 1 < start.length; l++) {
+            width = Math.max(width, start[l + 1] - start[l]);
+        }
+        return width;
+    }
+    
+    // Na ile zadań dzielimy klasę o danej liczbie operacji: każde ma co najmniej GRAIN kroków
+    private int tasks(int width) {
+        long perTask = (GRAIN + work) / (work + 1); // operacji na zadanie, w górę
+        return (int) Math.min(width, width / perTask);
+    }
+    
+    // Klasy wykonywane jako co najmniej dwa zadania na puli
+    int forkedLayers() {
+        int forked = 0;
+        for (int l = 0; l + 1 < start.length; l++) {
+            if (tasks(start[l + 1] - start[l]) > 1) {
+                forked++;
+            }
+        }
+        return forked;
+    }
+    
+    long[] initialValues() {
+        long[] values = new long[transactions.variableCount()];
+        Arrays.fill(values, 1);
+        return values;
+    }
+    
+    long[] sequential() {
+        long[] values = initialValues();
+        for (byte letter : trace) {
+            transactions.get(letter).apply(values, work);
+        }
+        return values;
+    }
+    
+    long[] parallel(ForkJoinPool pool) {
+        long[] values = initialValues();
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                for (int l = 0; l + 1 < start.length; l++) {
+                    runLayer(values, start[l], start[l + 1]);
+                }
+            }
+        });
+        return values;
+    }
+    
+    private void runLayer(long[] values, int from, int to) {
+        int count = tasks(to - from);
+        if (count < 2) {
+            run(values, from, to);
+            return;
+        }
+        // ciągłe kawałki klasy po równo, pierwszy wykonuje bieżący wątek (invokeAll)
+        RecursiveAction[] tasks = new RecursiveAction[count];
+        for (int t = 0; t < count; t++) {
+            int first = from + (int) ((long) (to - from) * t / count);
+            int end = from + (int) ((long) (to - from) * (t + 1) / count);
+            tasks[t] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    run(values, first, end);
+                }
+            };
+        }
+        RecursiveAction.invokeAll(tasks);
+    }
+    
+    private void run(long[] values, int from, int to) {
+        for (int k = from; k < to; k++) {
+            transactions.get(trace[order[k]]).apply(values, work);
+        }
+    }
+    
+    String format(long[] values) {
+        StringBuilder result = new StringBuilder();
+        for (int v = 0; v < values.length; v++) {
+            result.append(v == 0 ? "" : ", ").append(transactions.variableName(v)).append(" = ").append(values[v]);
+        }
+        return result.toString();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path transactionsFile = Path.of("transakcje.txt");
+        Path alphabetFile = Path.of("alfabet.txt");
+        String word = "baadcb";
+        int length = 0;
+        long seed = 2024;
+        int work = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int runs = 3;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-transactions": transactionsFile = Path.of(args[i + 1]); break;
+                case "-alphabet": alphabetFile = Path.of(args[i + 1]); break;
+                case "-word": word = args[i + 1]; break;
+                case "-length": length = Integer.parseInt(args[i + 1]); break;
+                case "-seed": seed = Long.parseLong(args[i + 1]); break;
+                case "-work": work = Integer.parseInt(args[i + 1]); break;
+                case "-threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "-runs": runs = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        
+        Transactions transactions = Transactions.load(transactionsFile, alphabetFile);
+        for (int a = 0; a < transactions.size(); a++) {
+            System.out.println(transactions.get(a));
+        }
+        System.out.println("D = " + transactions.relation(true));
+        System.out.println("I = " + transactions.relation(false));
+        
+        byte[] trace = length > 0 ? transactions.randomWord(length, seed) : transactions.parseWord(word);
+        long buildStart = System.nanoTime();
+        int[] layer = FoataBuilder.layers(transactions, trace);
+        long buildNanos = System.nanoTime() - buildStart;
+        FoataExecutor executor = new FoataExecutor(transactions, trace, layer, work);
+        if (length > 0) {
+            System.out.println("Losowe słowo długości " + length + " (ziarno " + seed + ")");
+        } else {
+            System.out.println("w = " + word);
+            System.out.println("FNF([w]) = " + FoataBuilder.format(transactions, trace, layer));
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "Klasy Foaty: %d, średnio %.2f operacji w klasie, najwięcej %d; budowa %.1f ms (%.1f ns/operację)",
+                executor.layers(), (double) trace.length / Math.max(1, executor.layers()), executor.maxWidth(),
+                buildNanos / 1e6, (double) buildNanos / Math.max(1, trace.length)));
+        System.out.println(String.format(Locale.ROOT, "Klasy rozdzielone na zadania puli: %d z %d (GRAIN %d kroków)",
+                executor.forkedLayers(), executor.layers(), GRAIN));
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long[] expected = null;
+            long[] actual = null;
+            long sequentialNanos = Long.MAX_VALUE;
+            long parallelNanos = Long.MAX_VALUE;
+            // najlepszy z kilku przebiegów, pierwsze rozgrzewają JIT
+            for (int run = 0; run < runs; run++) {
+                long t0 = System.nanoTime();
+                expected = executor.sequential();
+                long t1 = System.nanoTime();
+                actual = executor.parallel(pool);
+                long t2 = System.nanoTime();
+                sequentialNanos = Math.min(sequentialNanos, t1 - t0);
+                parallelNanos = Math.min(parallelNanos, t2 - t1);
+            }
+            System.out.println("Sekwencyjnie: " + executor.format(expected));
+            System.out.println("Po klasach:   " + executor.format(actual));
+            if (!Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("Wykonanie po klasach Foaty dało inny wynik");
+            }
+            System.out.println(String.format(Locale.ROOT,
+                    "Sekwencyjnie %.2f ms, równolegle (%d wątków, work %d) %.2f ms, przyspieszenie %.2fx",
+                    sequentialNanos / 1e6, threads, work, parallelNanos / 1e6,
+                    (double) sequentialNanos / parallelNanos));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Graf zależności Diekerta (diagram Hassego, czyli już po redukcji przechodniej) i klasy Foaty
+// liczone w jednym przejściu po śladzie, bez trzymania słowa w pamięci. Ślad czytamy z pliku
+// odwzorowanego w pamięć kawałkami po CHUNK bajtów (jedno odwzorowanie ma najwyżej 2 GB).
+//
+// Stan dotyczy tylko ostatnich wystąpień: dla zmiennej - litera, która ją ostatnio zapisała,
+// i litery, które ją czytały od tego zapisu (kolejne wystąpienie tej samej litery zastępuje
+// poprzednie, bo litera zależy sama od siebie). Kandydaci na poprzedników nowej operacji to ostatni
+// zapis każdej używanej zmiennej i odczyty zapisywanej zmiennej. Krawędź z kandydata zostaje, jeśli
+// nie poprzedza on innego kandydata - dla ostatniego wystąpienia każdej litery trzymamy maskę liter,
+// których ostatnie wystąpienia je poprzedzają, więc redukcja przechodnia to kilka operacji na bitach.
+// Pamięć: O(|A| + liczba zmiennych), niezależnie od długości śladu.
+//
+// Klasa Foaty operacji jest znana od razu, ale klasę wypisujemy dopiero, gdy żadna przyszła
+// operacja już do niej nie trafi, czyli gdy każda litera wystąpiła w klasie późniejszej albo równej.
+// Do tego czasu klasy czekają w buforze (po jednej masce bitowej liter na klasę) - litera, która
+// w śladzie nie występuje, zatrzymuje wypisywanie do końca.
+//
+// Przykłady:
+//   java HasseStream -word baadcb
+//   java HasseStream -transactions transakcje2.txt -alphabet alfabet2.txt -word acdcfbbe
+//   java HasseStream -generate 2000000000 -trace slowo.txt
+//   java HasseStream -trace slowo.txt -dot graf.dot -fnf fnf.txt
+class HasseStream {
+    static final long CHUNK = 1L << 30;
+    
+    // Numeracja operacji od 1, jak wierzchołki w notatniku
+    interface Listener {
+        void vertex(long position, int letter, long layer);
+        
+        void edge(long from, long to);
+        
+        // letters - maska bitowa liter klasy
+        void foataClass(long layer, long letters);
+    }
+    
+    private final Transactions transactions;
+    private final Listener listener;
+    private final int[] letterOf = new int[256]; // bajt -> numer litery albo -1
+    private final long[] lastPosition; // ostatnie wystąpienie litery, 0 - brak
+    private final long[] lastLayer; // jego klasa Foaty, -1 - brak
+    private final long[] before; // before[a] - maska liter, których ostatnie wystąpienie poprzedza ostatnie a
+    private final int[] lastWriter; // litera, która ostatnio zapisała zmienną, -1 - brak
+    private final long[] readers; // maska liter czytających zmienną od ostatniego zapisu
+    private final int[] predecessors;
+    private long position;
+    private long edges;
+    private long layers;
+    // bufor cykliczny klas, które mogą jeszcze urosnąć: klasa l leży w open[l & (open.length - 1)]
+    private long[] open = new long[16];
+    private long emitted;
+    private long maxOpen;
+    
+    HasseStream(Transactions transactions, Listener listener) {
+        if (transactions.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Alfabet ma więcej niż " + Long.SIZE + " liter");
+        }
+        this.transactions = transactions;
+        this.listener = listener;
+        int size = transactions.size();
+        Arrays.fill(letterOf, -1);
+        for (int a = 0; a < size; a++) {
+            letterOf[transactions.letter(a)] = a;
+        }
+        lastPosition = new long[size];
+        lastLayer = new long[size];
+        Arrays.fill(lastLayer, -1);
+        before = new long[size];
+        lastWriter = new int[transactions.variableCount()];
+        Arrays.fill(lastWriter, -1);
+        readers = new long[transactions.variableCount()];
+        predecessors = new int[size];
+    }
+    
+    // Białe znaki (np. końce linii) pomijamy
+    void accept(byte b) {
+        int letter = letterOf[b & 0xff];
+        if (letter < 0) {
+            if (!Character.isWhitespace(b)) {
+                throw new IllegalArgumentException("Litera spoza alfabetu: '" + (char) (b & 0xff)
+                        + "' po operacji " + position);
+            }
+            return;
+        }
+        add(letter);
+    }
+    
+    private void add(int letter) {
+        long current = ++position;
+        Transaction transaction = transactions.get(letter);
+        int target = transaction.getTarget();
+        
+        long mask = readers[target];
+        if (lastWriter[target] >= 0) {
+            mask |= 1L << lastWriter[target];
+        }
+        for (int v : transaction.getVariables()) {
+            if (lastWriter[v] >= 0) {
+                mask |= 1L << lastWriter[v];
+            }
+        }
+        // kandydat poprzedzający innego kandydata nie jest bezpośrednim poprzednikiem
+        long reached = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            int p = Long.numberOfTrailingZeros(m);
+            reached |= before[p] | 1L << p;
+        }
+        long hasse = mask;
+        for (long m = mask; m != 0; m &= m - 1) {
+            hasse &= ~before[Long.numberOfTrailingZeros(m)];
+        }
+        long layer = 0;
+        int count = 0;
+        for (long m = hasse; m != 0; m &= m - 1) {
+            int p = Long.numberOfTrailingZeros(m);
+            predecessors[count++] = p;
+            layer = Math.max(layer, lastLayer[p] + 1);
+        }
+        // krawędzie w kolejności rosnącej jak w notatniku
+        sortByPosition(predecessors, count);
+        for (int k = 0; k < count; k++) {
+            listener.edge(lastPosition[predecessors[k]], current);
+        }
+        edges += count;
+        listener.vertex(current, letter, layer);
+        
+        // nowe wystąpienie litery nie poprzedza niczego, co już było
+        for (int a = 0; a < before.length; a++) {
+            before[a] &= ~(1L << letter);
+        }
+        before[letter] = reached & ~(1L << letter);
+        lastPosition[letter] = current;
+        lastLayer[letter] = layer;
+        lastWriter[target] = letter;
+        readers[target] = 0;
+        for (int v : transaction.getVariables()) {
+            if (v != target) {
+                readers[v] |= 1L << letter;
+            }
+        }
+        layers = Math.max(layers, layer + 1);
+        addToClass(layer, letter);
+    }
+    
+    private void sortByPosition(int[] letters, int count) {
+        for (int i = 1; i < count; i++) {
+            int letter = letters[i];
+            int j = i - 1;
+            for (; j >= 0 && lastPosition[letters[j]] > lastPosition[letter]; j--) {
+                letters[j + 1] = letters[j];
+            }
+            letters[j + 1] = letter;
+        }
+    }
+    
+    private void addToClass(long layer, int letter) {
+        if (layer - emitted >= open.length) {
+            long[] grown = new long[open.length * 2];
+            for (long l = emitted; l < emitted + open.length; l++) {
+                grown[(int) l & (grown.length - 1)] = open[(int) l & (open.length - 1)];
+            }
+            open = grown;
+        }
+        open[(int) layer & (open.length - 1)] |= 1L << letter;
+        maxOpen = Math.max(maxOpen, layers - emitted);
+        // przyszła litera a trafi co najmniej do klasy lastLayer[a] + 1
+        long closed = Long.MAX_VALUE;
+        for (long l : lastLayer) {
+            closed = Math.min(closed, l + 1);
+        }
+        flush(closed);
+    }
+    
+    // Wypisuje klasy o numerach < limit
+    private void flush(long limit) {
+        long end = Math.min(limit, layers);
+        for (; emitted < end; emitted++) {
+            int index = (int) emitted & (open.length - 1);
+            listener.foataClass(emitted, open[index]);
+            open[index] = 0;
+        }
+    }
+    
+    // Koniec śladu - reszta klas jest już pełna
+    void finish() {
+        flush(Long.MAX_VALUE);
+    }
+    
+    void process(Path trace) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += CHUNK) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(CHUNK, size - offset));
+                while (buffer.hasRemaining()) {
+                    accept(buffer.get());
+                }
+            }
+        }
+        finish();
+    }
+    
+    long operations() {
+        return position;
+    }
+    
+    long edges() {
+        return edges;
+    }
+    
+    long layers() {
+        return layers;
+    }
+    
+    long maxOpenClasses() {
+        return maxOpen;
+    }
+    
+    static String format(Transactions transactions, long letters) {
+        StringBuilder result = new StringBuilder("(");
+        for (int a = 0; a < transactions.size(); a++) {
+            if ((letters >>> a & 1) != 0) {
+                result.append(transactions.letter(a));
+            }
+        }
+        return result.append(')').toString();
+    }
+    
+    // Losowe słowo zapisane strumieniowo, po 100 liter w linii
+    static void generate(Transactions transactions, Path trace, long length, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(trace), 1 << 16)) {
+            for (long i = 1; i <= length; i++) {
+                out.write(transactions.letter(random.nextInt(transactions.size())));
+                if (i % 100 == 0) {
+                    out.write('\n');
+                }
+            }
+        }
+    }
+    
+    private static PrintWriter writer(String file) throws IOException {
+        if (file == null) {
+            return null;
+        }
+        Writer writer = file.equals("-") ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8);
+        return new PrintWriter(new BufferedWriter(writer, 1 << 16));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path transactionsFile = Path.of("transakcje.txt");
+        Path alphabetFile = Path.of("alfabet.txt");
+        String word = null;
+        Path trace = null;
+        long generate = 0;
+        long seed = 2024;
+        String dotFile = null;
+        String fnfFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-transactions": transactionsFile = Path.of(args[i + 1]); break;
+                case "-alphabet": alphabetFile = Path.of(args[i + 1]); break;
+                case "-word": word = args[i + 1]; break;
+                case "-trace": trace = Path.of(args[i + 1]); break;
+                case "-generate": generate = Long.parseLong(args[i + 1]); break;
+                case "-seed": seed = Long.parseLong(args[i + 1]); break;
+                case "-dot": dotFile = args[i + 1]; break;
+                case "-fnf": fnfFile = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Nieznana opcja: " + args[i]);
+            }
+        }
+        if (generate > 0 && trace == null) {
+            throw new IllegalArgumentException("-generate zapisuje ślad do pliku, podaj go w -trace");
+        }
+        Transactions transactions = Transactions.load(transactionsFile, alphabetFile);
+        if (trace == null) {
+            // krótkie słowo: wszystko na standardowe wyjście, jak w notatniku
+            word = word == null ? "baadcb" : word;
+            dotFile = dotFile == null ? "-" : dotFile;
+            fnfFile = fnfFile == null ? "-" : fnfFile;
+        } else if (generate > 0) {
+            long start = System.nanoTime();
+            generate(transactions, trace, generate, seed);
+            System.out.println(String.format(Locale.ROOT, "Zapisano %d liter do %s w %.1f s",
+                    generate, trace, (System.nanoTime() - start) / 1e9));
+        }
+        
+        PrintWriter dot = writer(dotFile);
+        PrintWriter fnf = writer(fnfFile);
+        if (dot != null) {
+            dot.println("digraph g {");
+        }
+        if (fnf != null) {
+            fnf.print("FNF([w]) = ");
+        }
+        HasseStream stream = new HasseStream(transactions, new Listener() {
+            @Override
+            public void vertex(long position, int letter, long layer) {
+                if (dot != null) {
+                    dot.println("  " + position + " [label=" + transactions.letter(letter) + "]");
+                }
+            }
+            
+            @Override
+            public void edge(long from, long to) {
+                if (dot != null) {
+                    dot.println("  " + from + " -> " + to);
+                }
+            }
+            
+            @Override
+            public void foataClass(long layer, long letters) {
+                if (fnf != null) {
+                    fnf.print(format(transactions, letters));
+                }
+            }
+        });
+        
+        long start = System.nanoTime();
+        long bytes;
+        if (trace != null) {
+            bytes = Files.size(trace);
+            stream.process(trace);
+        } else {
+            bytes = word.length();
+            for (int i = 0; i < word.length(); i++) {
+                stream.accept((byte) word.charAt(i));
+            }
+            stream.finish();
+        }
+        if (fnf != null) {
+            fnf.println();
+            fnf.flush();
+        }
+        if (dot != null) {
+            dot.println("}");
+            dot.flush();
+        }
+        long nanos = System.nanoTime() - start;
+        if (trace != null) {
+            System.out.println(String.format(Locale.ROOT,
+                    "Operacje: %d, krawędzie Hassego: %d, klasy Foaty: %d, najwięcej klas w buforze: %d",
+                    stream.operations(), stream.edges(), stream.layers(), stream.maxOpenClasses()));
+            System.out.println(String.format(Locale.ROOT, "Czas %.2f s, %.1f MB/s, %.1f ns/operację",
+                    nanos / 1e9, bytes / 1e6 / (nanos / 1e9), (double) nanos / Math.max(1, stream.operations())));
+        }
+        if (dot != null && !"-".equals(dotFile)) {
+            dot.close();
+        }
+        if (fnf != null && !"-".equals(fnfFile)) {
+            fnf.close();
+        }
+    }
+}
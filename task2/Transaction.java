@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Transakcja z pliku transakcje.txt, np. "(c) x := 3x+z": zmienna po lewej dostaje kombinację
+// liniową zmiennych i stałych z prawej strony (mnożenie bez znaku, minus '-' albo '−').
+// Zmienne są indeksami w tablicy wartości wspólnej dla całego śladu.
+class Transaction {
+    private final char name;
+    private final String text;
+    private final int target;
+    private final int[] variables;
+    private final long[] coefficients;
+    private final long constant;
+    
+    private Transaction(char name, String text, int target, int[] variables, long[] coefficients, long constant) {
+        this.name = name;
+        this.text = text;
+        this.target = target;
+        this.variables = variables;
+        this.coefficients = coefficients;
+        this.constant = constant;
+    }
+    
+    // indices przypisuje kolejne numery nowym nazwom zmiennych
+    static Transaction parse(String line, Map<Character, Integer> indices) {
+        String s = line.replace('−', '-').replaceAll("\\s+", "");
+        int close = s.indexOf(')');
+        int assign = s.indexOf(":=");
+        if (!s.startsWith("(") || close != 2 || assign != close + 2) {
+            throw new IllegalArgumentException("Niepoprawna transakcja: " + line);
+        }
+        char name = s.charAt(1);
+        int target = index(s.charAt(close + 1), indices, line);
+        List<Integer> variables = new ArrayList<>();
+        List<Long> coefficients = new ArrayList<>();
+        long constant = 0;
+        String expression = s.substring(assign + 2);
+        int i = 0;
+        while (i < expression.length()) {
+            long sign = 1;
+            char c = expression.charAt(i);
+            if (c == '+' || c == '-') {
+                sign = c == '-' ? -1 : 1;
+                i++;
+            } else if (i > 0) {
+                throw new IllegalArgumentException("Oczekiwano + albo - w: " + line);
+            }
+            int start = i;
+            while (i < expression.length() && Character.isDigit(expression.charAt(i))) {
+                i++;
+            }
+            long value = i > start ? Long.parseLong(expression.substring(start, i)) : 1;
+            if (i < expression.length() && expression.charAt(i) == '*') {
+                i++;
+            }
+            if (i < expression.length() && Character.isLowerCase(expression.charAt(i))) {
+                int variable = index(expression.charAt(i++), indices, line);
+                int k = variables.indexOf(variable);
+                if (k < 0) {
+                    variables.add(variable);
+                    coefficients.add(sign * value);
+                } else {
+                    coefficients.set(k, coefficients.get(k) + sign * value);
+                }
+            } else if (i > start) {
+                constant += sign * value;
+            } else {
+                throw new IllegalArgumentException("Oczekiwano liczby albo zmiennej w: " + line);
+            }
+        }
+        return new Transaction(name, line.trim(), target,
+                variables.stream().mapToInt(Integer::intValue).toArray(),
+                coefficients.stream().mapToLong(Long::longValue).toArray(), constant);
+    }
+    
+    private static int index(char variable, Map<Character, Integer> indices, String line) {
+        if (!Character.isLowerCase(variable)) {
+            throw new IllegalArgumentException("Niepoprawna zmienna '" + variable + "' w: " + line);
+        }
+        return indices.computeIfAbsent(variable, v -> indices.size());
+    }
+    
+    char getName() {
+        return name;
+    }
+    
+    int getTarget() {
+        return target;
+    }
+    
+    int[] getVariables() {
+        return variables;
+    }
+    
+    // Zmienna występuje w transakcji po lewej albo po prawej stronie
+    boolean uses(int variable) {
+        if (variable == target) {
+            return true;
+        }
+        for (int v : variables) {
+            if (v == variable) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Jak w notatniku: zależne, gdy jedna zapisuje zmienną, której używa druga
+    boolean dependsOn(Transaction other) {
+        return uses(other.target) || other.uses(target);
+    }
+    
+    // Wylicza nową wartość zmiennej; work > 0 dokłada tyle kroków mieszania (LCG), żeby symulować
+    // cięższą transakcję - bez tego pojedyncza operacja trwa kilka nanosekund
+    void apply(long[] values, int work) {
+        long result = constant;
+        for (int k = 0; k < variables.length; k++) {
+            result += coefficients[k] * values[variables[k]];
+        }
+        for (int k = 0; k < work; k++) {
+            result = result * 6364136223846793005L + 1442695040888963407L;
+        }
+        values[target] = result;
+    }
+    
+    @Override
+    public String toString() {
+        return text;
+    }
+}
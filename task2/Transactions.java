@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Alfabet (alfabet.txt) i transakcje (transakcje.txt) razem z relacjami zależności D i niezależności I.
+// Litery są numerowane w kolejności z alfabetu, ślad to tablica numerów liter.
+class Transactions {
+    private final char[] alphabet;
+    private final Transaction[] transactions; // indeks = numer litery
+    private final boolean[][] dependent;
+    private final int variableCount;
+    private final char[] variableNames;
+    
+    private Transactions(char[] alphabet, Transaction[] transactions, Map<Character, Integer> variables) {
+        this.alphabet = alphabet;
+        this.transactions = transactions;
+        this.variableCount = variables.size();
+        this.variableNames = new char[variableCount];
+        variables.forEach((name, index) -> variableNames[index] = name);
+        this.dependent = new boolean[alphabet.length][alphabet.length];
+        for (int a = 0; a < alphabet.length; a++) {
+            for (int b = 0; b < alphabet.length; b++) {
+                dependent[a][b] = transactions[a].dependsOn(transactions[b]);
+            }
+        }
+    }
+    
+    static Transactions load(Path transactionsFile, Path alphabetFile) throws IOException {
+        String alphabetText = Files.readString(alphabetFile, StandardCharsets.UTF_8);
+        int open = alphabetText.indexOf('{');
+        int close = alphabetText.indexOf('}', open + 1);
+        if (open < 0 || close < 0) {
+            throw new IllegalArgumentException("Niepoprawny alfabet: " + alphabetText.trim());
+        }
+        StringBuilder letters = new StringBuilder();
+        for (String letter : alphabetText.substring(open + 1, close).split(",")) {
+            if (letter.trim().length() != 1) {
+                throw new IllegalArgumentException("Niepoprawna litera alfabetu: '" + letter.trim() + "'");
+            }
+            letters.append(letter.trim());
+        }
+        char[] alphabet = letters.toString().toCharArray();
+        
+        Map<Character, Integer> variables = new LinkedHashMap<>();
+        Map<Character, Transaction> byName = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(transactionsFile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                Transaction transaction = Transaction.parse(line, variables);
+                byName.put(transaction.getName(), transaction);
+            }
+        }
+        Transaction[] transactions = new Transaction[alphabet.length];
+        for (int a = 0; a < alphabet.length; a++) {
+            transactions[a] = byName.get(alphabet[a]);
+            if (transactions[a] == null) {
+                throw new IllegalArgumentException("Brak transakcji dla litery " + alphabet[a]);
+            }
+        }
+        return new Transactions(alphabet, transactions, variables);
+    }
+    
+    int size() {
+        return alphabet.length;
+    }
+    
+    char letter(int index) {
+        return alphabet[index];
+    }
+    
+    int indexOf(char letter) {
+        for (int a = 0; a < alphabet.length; a++) {
+            if (alphabet[a] == letter) {
+                return a;
+            }
+        }
+        throw new IllegalArgumentException("Litera spoza alfabetu: '" + letter + "'");
+    }
+    
+    Transaction get(int index) {
+        return transactions[index];
+    }
+    
+    boolean dependent(int a, int b) {
+        return dependent[a][b];
+    }
+    
+    int variableCount() {
+        return variableCount;
+    }
+    
+    char variableName(int index) {
+        return variableNames[index];
+    }
+    
+    byte[] parseWord(String word) {
+        byte[] trace = new byte[word.length()];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = (byte) indexOf(word.charAt(i));
+        }
+        return trace;
+    }
+    
+    // Losowe słowo nad alfabetem, powtarzalne dla danego ziarna
+    byte[] randomWord(int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] trace = new byte[length];
+        for (int i = 0; i < length; i++) {
+            trace[i] = (byte) random.nextInt(alphabet.length);
+        }
+        return trace;
+    }
+    
+    // D albo I w zapisie z notatnika: {(a, a), (a, b), ...}
+    String relation(boolean dependence) {
+        List<String> pairs = new ArrayList<>();
+        for (int a = 0; a < alphabet.length; a++) {
+            for (int b = 0; b < alphabet.length; b++) {
+                if (dependent[a][b] == dependence) {
+                    pairs.add("(" + alphabet[a] + ", " + alphabet[b] + ")");
+                }
+            }
+        }
+        return "{" + String.join(", ", pairs) + "}";
+    }
+}